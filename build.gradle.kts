@@ -10,6 +10,23 @@ repositories {
     mavenCentral()
 }
 
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+
+// Components compiled here get factories from the annotation processor, so the regular test
+// source set keeps covering reflective injection.
+val factoryTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[factoryTest.implementationConfigurationName].extendsFrom(configurations.testImplementation.get())
+configurations[factoryTest.runtimeOnlyConfigurationName].extendsFrom(configurations.testRuntimeOnly.get())
+
 dependencies {
     implementation("jakarta.inject:jakarta.inject-api:2.0.1")
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
@@ -19,8 +36,32 @@ dependencies {
     testRuntimeOnly("org.junit.platform:junit-platform-runner:1.8.2")
     testImplementation("org.mockito:mockito-core:4.3.1")
     testImplementation("jakarta.inject:jakarta.inject-tck:2.0.1")
+    "factoryTestAnnotationProcessor"(project(":processor"))
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+val factoryTestTask = tasks.register<Test>("factoryTest") {
+    group = "verification"
+    description = "Runs the tests whose components have generated factories"
+    testClassesDirs = factoryTest.output.classesDirs
+    classpath = factoryTest.runtimeClasspath
+    useJUnitPlatform()
+}
+
+tasks.check {
+    dependsOn(factoryTestTask)
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks with the GC profiler, extra arguments via -Pjmh.args"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args("-prof", "gc")
+    (project.findProperty("jmh.args") as String?)?.let { args(it.split(" ")) }
+}
@@ -0,0 +1,10 @@
+plugins {
+    java
+}
+
+group = "org.abbet"
+version = "1.0-SNAPSHOT"
+
+repositories {
+    mavenCentral()
+}
@@ -0,0 +1,217 @@
+package org.abbet.di.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static javax.lang.model.util.ElementFilter.*;
+
+@SupportedAnnotationTypes(InjectProcessor.INJECT)
+public class InjectProcessor extends AbstractProcessor {
+    static final String INJECT = "jakarta.inject.Inject";
+    static final String PROVIDER = "jakarta.inject.Provider";
+    static final String SUFFIX = "_Factory";
+
+    private Elements elements;
+    private Types types;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Set<TypeElement> components = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations)
+            for (Element element : round.getElementsAnnotatedWith(annotation))
+                if (element.getEnclosingElement() instanceof TypeElement component) components.add(component);
+        for (TypeElement component : components) {
+            Optional<Factory> factory = Factory.of(component, elements, types);
+            if (factory.isPresent()) write(factory.get());
+        }
+        return false;
+    }
+
+    private void write(Factory factory) {
+        try (Writer writer = processingEnv.getFiler().createSourceFile(factory.qualifiedName(), factory.component()).openWriter()) {
+            writer.write(factory.render());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "cannot write " + factory.qualifiedName() + ": " + e.getMessage(), factory.component());
+        }
+    }
+
+    record Dependency(String type, boolean provider) {
+        String cast(int index) {
+            return (provider ? "(" + PROVIDER + "<" + type + ">) " : "(" + type + ") ") + "dependencies[" + index + "]";
+        }
+    }
+
+    record Factory(TypeElement component, String packageName, String simpleName, ExecutableElement constructor,
+                   List<VariableElement> fields, List<ExecutableElement> methods, List<Dependency> dependencies) {
+
+        static Optional<Factory> of(TypeElement component, Elements elements, Types types) {
+            String packageName = elements.getPackageOf(component).getQualifiedName().toString();
+            if (component.getKind() != ElementKind.CLASS || component.getModifiers().contains(Modifier.ABSTRACT)
+                    || !component.getTypeParameters().isEmpty() || !accessible(component, packageName, elements)
+                    || component.getNestingKind() == NestingKind.LOCAL || component.getNestingKind() == NestingKind.ANONYMOUS
+                    || (component.getNestingKind() == NestingKind.MEMBER && !component.getModifiers().contains(Modifier.STATIC)))
+                return Optional.empty();
+
+            ExecutableElement constructor = constructor(component);
+            List<VariableElement> fields = new ArrayList<>();
+            List<ExecutableElement> methods = new ArrayList<>();
+            for (TypeElement current = component; current != null; current = superclass(current)) {
+                for (VariableElement field : fieldsIn(current.getEnclosedElements()))
+                    if (injectable(field)) fields.add(field);
+                for (ExecutableElement method : methodsIn(current.getEnclosedElements()))
+                    if (injectable(method) && methods.stream().noneMatch(o -> sameSignature(o, method, types))
+                            && methodsIn(component.getEnclosedElements()).stream().filter(o -> !injectable(o)).noneMatch(o -> sameSignature(o, method, types)))
+                        methods.add(method);
+            }
+            Collections.reverse(methods);
+
+            if (constructor == null
+                    || fields.stream().anyMatch(field -> field.getModifiers().contains(Modifier.FINAL) || !member(field, packageName, elements))
+                    || methods.stream().anyMatch(method -> !method.getTypeParameters().isEmpty() || !member(method, packageName, elements))
+                    || Stream.concat(fields.stream(), methods.stream()).anyMatch(member -> !accessible((TypeElement) member.getEnclosingElement(), packageName, elements)))
+                return Optional.empty();
+
+            List<TypeMirror> injected = new ArrayList<>();
+            constructor.getParameters().forEach(parameter -> injected.add(parameter.asType()));
+            fields.forEach(field -> injected.add(field.asType()));
+            methods.forEach(method -> method.getParameters().forEach(parameter -> injected.add(parameter.asType())));
+            List<Dependency> dependencies = new ArrayList<>();
+            for (TypeMirror type : injected) {
+                Dependency dependency = dependency(type, packageName, elements);
+                if (dependency == null) return Optional.empty();
+                dependencies.add(dependency);
+            }
+
+            // doubling the $ keeps nested A$B and top-level A_B (or A$_B) from sharing a factory name
+            String binaryName = elements.getBinaryName(component).toString();
+            String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace("$", "$$") + SUFFIX;
+            return Optional.of(new Factory(component, packageName, simpleName, constructor, fields, methods, dependencies));
+        }
+
+        String qualifiedName() {
+            return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        }
+
+        String render() {
+            String type = component.getQualifiedName().toString();
+            StringBuilder source = new StringBuilder();
+            if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+            source.append("@javax.annotation.processing.Generated(\"").append(InjectProcessor.class.getName()).append("\")\n")
+                    .append("public final class ").append(simpleName).append(" implements org.abbet.di.ComponentFactory<").append(type).append("> {\n")
+                    .append("    private static final java.util.List<Class<?>> DEPENDENCIES = java.util.List.of(")
+                    .append(dependencies.stream().map(dependency -> dependency.type() + ".class").collect(Collectors.joining(", "))).append(");\n\n")
+                    .append("    @Override\n    public java.util.List<Class<?>> getDependencies() {\n        return DEPENDENCIES;\n    }\n\n")
+                    .append("    @Override\n    public boolean isProvider(int dependency) {\n        return ").append(providers()).append(";\n    }\n\n")
+                    .append("    @Override\n    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n    public ").append(type).append(" create(Object[] dependencies) {\n");
+
+            int index = 0;
+            List<String> arguments = new ArrayList<>();
+            for (int i = 0; i < constructor.getParameters().size(); i++) arguments.add(dependencies.get(index).cast(index++));
+            source.append("        ").append(type).append(" instance = new ").append(type).append("(").append(String.join(", ", arguments)).append(");\n");
+            for (VariableElement field : fields)
+                source.append("        ").append(target(field)).append(".").append(field.getSimpleName()).append(" = ").append(dependencies.get(index).cast(index++)).append(";\n");
+            for (ExecutableElement method : methods) {
+                arguments.clear();
+                for (int i = 0; i < method.getParameters().size(); i++) arguments.add(dependencies.get(index).cast(index++));
+                source.append("        ").append(target(method)).append(".").append(method.getSimpleName()).append("(").append(String.join(", ", arguments)).append(");\n");
+            }
+            return source.append("        return instance;\n    }\n}\n").toString();
+        }
+
+        // a member of a superclass is reached through it, so a field shadowed further down is not the one assigned
+        private String target(Element member) {
+            TypeElement declaring = (TypeElement) member.getEnclosingElement();
+            return declaring.equals(component) ? "instance" : "((" + declaring.getQualifiedName() + ") instance)";
+        }
+
+        private String providers() {
+            List<String> indexes = new ArrayList<>();
+            for (int i = 0; i < dependencies.size(); i++)
+                if (dependencies.get(i).provider()) indexes.add("dependency == " + i);
+            return indexes.isEmpty() ? "false" : String.join(" || ", indexes);
+        }
+
+        private static ExecutableElement constructor(TypeElement component) {
+            List<ExecutableElement> constructors = constructorsIn(component.getEnclosedElements());
+            List<ExecutableElement> injectConstructors = constructors.stream()
+                    .filter(constructor -> injectable(constructor) && constructor.getModifiers().contains(Modifier.PUBLIC)).toList();
+            if (injectConstructors.size() > 1) return null;
+            ExecutableElement constructor = injectConstructors.isEmpty()
+                    ? constructors.stream().filter(c -> c.getParameters().isEmpty()).findFirst().orElse(null)
+                    : injectConstructors.get(0);
+            return constructor == null || constructor.getModifiers().contains(Modifier.PRIVATE) ? null : constructor;
+        }
+
+        private static Dependency dependency(TypeMirror type, String packageName, Elements elements) {
+            if (type.getKind() != TypeKind.DECLARED) return null;
+            DeclaredType declared = (DeclaredType) type;
+            TypeElement element = (TypeElement) declared.asElement();
+            if (element.getQualifiedName().contentEquals(PROVIDER)) {
+                if (declared.getTypeArguments().size() != 1) return null;
+                Dependency provided = dependency(declared.getTypeArguments().get(0), packageName, elements);
+                return provided == null || provided.provider() ? null : new Dependency(provided.type(), true);
+            }
+            if (!declared.getTypeArguments().isEmpty() || !accessible(element, packageName, elements)) return null;
+            return new Dependency(element.getQualifiedName().toString(), false);
+        }
+
+        private static boolean accessible(TypeElement type, String packageName, Elements elements) {
+            for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+                Set<Modifier> modifiers = current.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE)) return false;
+                if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(current).getQualifiedName().contentEquals(packageName))
+                    return false;
+            }
+            return true;
+        }
+
+        private static boolean member(Element member, String packageName, Elements elements) {
+            return !member.getModifiers().contains(Modifier.PRIVATE)
+                    && elements.getPackageOf(member).getQualifiedName().contentEquals(packageName);
+        }
+
+        private static boolean injectable(Element element) {
+            return element.getAnnotationMirrors().stream()
+                    .anyMatch(annotation -> ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(INJECT));
+        }
+
+        private static boolean sameSignature(ExecutableElement method, ExecutableElement other, Types types) {
+            if (!method.getSimpleName().equals(other.getSimpleName()) || method.getParameters().size() != other.getParameters().size())
+                return false;
+            for (int i = 0; i < method.getParameters().size(); i++)
+                if (!types.isSameType(types.erasure(method.getParameters().get(i).asType()), types.erasure(other.getParameters().get(i).asType())))
+                    return false;
+            return true;
+        }
+
+        private static TypeElement superclass(TypeElement type) {
+            if (type.getSuperclass().getKind() != TypeKind.DECLARED) return null;
+            TypeElement superclass = (TypeElement) ((DeclaredType) type.getSuperclass()).asElement();
+            return superclass.getQualifiedName().contentEquals("java.lang.Object") ? null : superclass;
+        }
+    }
+}
@@ -1,2 +1,3 @@
 rootProject.name = "di.container"
 
+include("processor")
@@ -0,0 +1,117 @@
+package org.abbet.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactoryTest {
+
+    ContextConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        config = new ContextConfig();
+    }
+
+    @Test
+    public void should_use_generated_factory_if_present() {
+        assertTrue(FactoryProvider.of(ConstructorInjection.class).isPresent());
+        assertTrue(FactoryProvider.of(InheritedFieldInjection.class).isEmpty());
+        assertArrayEquals(new Class<?>[]{Dependency.class},
+                FactoryProvider.of(MethodInjection.class).get().getDependencies().toArray(Class<?>[]::new));
+    }
+
+    @Test
+    public void should_bind_component_through_generated_factory() {
+        Dependency dependency = new Dependency() {
+        };
+        config.bind(Dependency.class, dependency);
+        config.bind(Component.class, FieldInjection.class);
+
+        assertSame(dependency, ((FieldInjection) config.getContext().get(Component.class).get()).dependency);
+    }
+
+    @Test
+    public void should_inject_provider_through_generated_factory() {
+        config.bind(Dependency.class, DependencyInstance.class);
+        config.bind(Component.class, ProviderInjection.class);
+        ProviderInjection component = (ProviderInjection) config.getContext().get(Component.class).get();
+
+        assertEquals(List.of(), FactoryProvider.of(ProviderInjection.class).get().getEagerDependencies());
+        assertNotSame(component.dependency.get(), component.dependency.get());
+    }
+
+    @Test
+    public void should_inject_superclass_field_shadowed_by_subclass() {
+        Dependency dependency = new Dependency() {
+        };
+        config.bind(Dependency.class, dependency);
+        config.bind(Component.class, ShadowingFieldInjection.class);
+        ShadowingFieldInjection component = (ShadowingFieldInjection) config.getContext().get(Component.class).get();
+
+        assertTrue(FactoryProvider.of(ShadowingFieldInjection.class).isPresent());
+        assertSame(dependency, component.dependency);
+        assertSame(dependency, ((FieldInjection) component).dependency);
+    }
+
+    @Test
+    public void should_keep_factories_of_nested_and_top_level_classes_apart() {
+        config.bind(Dependency.class, DependencyInstance.class);
+        config.bind(Component.class, FieldInjection.class);
+        config.bind(FactoryTest_FieldInjection.class, FactoryTest_FieldInjection.class);
+        Context context = config.getContext();
+
+        assertInstanceOf(FieldInjection.class, context.get(Component.class).get());
+        assertInstanceOf(FactoryTest_FieldInjection.class, context.get(FactoryTest_FieldInjection.class).get());
+        assertTrue(FactoryProvider.of(FactoryTest_FieldInjection.class).isPresent());
+    }
+
+    interface Component {
+    }
+
+    interface Dependency {
+    }
+
+    static class DependencyInstance implements Dependency {
+    }
+
+    static class ConstructorInjection implements Component {
+        @Inject
+        public ConstructorInjection(Dependency dependency) {
+        }
+    }
+
+    static class FieldInjection implements Component {
+        @Inject
+        Dependency dependency;
+    }
+
+    static class InheritedFieldInjection extends FieldInjection {
+    }
+
+    static class ShadowingFieldInjection extends FieldInjection {
+        @Inject
+        Dependency dependency;
+    }
+
+    static class MethodInjection implements Component {
+        @Inject
+        void install(Dependency dependency) {
+        }
+    }
+
+    static class ProviderInjection implements Component {
+        @Inject
+        Provider<Dependency> dependency;
+    }
+}
+
+class FactoryTest_FieldInjection {
+    @Inject
+    FactoryTest.Dependency dependency;
+}
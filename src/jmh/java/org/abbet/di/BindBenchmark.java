@@ -0,0 +1,42 @@
+package org.abbet.di;
+
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindBenchmark {
+    private ContextConfig config;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        config = new ContextConfig();
+    }
+
+    @Benchmark
+    public ContextConfig bindInstance() {
+        config.bind(Service.class, new Service(null));
+        return config;
+    }
+
+    @Benchmark
+    public ContextConfig bindComponent() {
+        config.bind(Service.class, Service.class);
+        return config;
+    }
+
+    public static class Repository {
+    }
+
+    public static class Service {
+        @Inject
+        public Service(Repository repository) {
+        }
+    }
+}
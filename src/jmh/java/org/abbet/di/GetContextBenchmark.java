@@ -0,0 +1,79 @@
+package org.abbet.di;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetContextBenchmark {
+    private static final int BATCH = 100;
+    private static final int TOUCHED_PER_REGISTRATION = 4;
+
+    @Param({"CHAIN", "FAN_OUT", "DIAMOND"})
+    public Graphs.Shape shape;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private List<Class<?>> keys;
+    private ContextConfig validated;
+    private final Deque<ContextConfig> fresh = new ArrayDeque<>();
+
+    @Setup
+    public void setup() {
+        keys = Graphs.keys(size);
+        validated = Graphs.config(shape, keys);
+        validated.getContext();
+    }
+
+    // Only the first getContext on a config validates everything, so each call takes a fresh one.
+    // A per-invocation setup would be timed along with calls this short, so the configs are built
+    // ahead for each iteration and getContext is measured as a single shot over the whole batch.
+    @Setup(Level.Iteration)
+    public void fresh() {
+        fresh.clear();
+        for (int i = 0; i < BATCH; i++) fresh.push(Graphs.config(shape, keys));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 10, batchSize = BATCH)
+    public Context getContext() {
+        return fresh.pop().getContext();
+    }
+
+    // only the rebound binding and its dependents are validated again and appended to the plan
+    @Benchmark
+    public Context getContextAfterRebind() {
+        Graphs.rebind(validated, shape, keys, size / 2);
+        return validated.getContext();
+    }
+
+    // The plugin case: every binding is registered on its own and followed by a getContext. Each
+    // call only validates and appends the new binding, so the whole run grows linearly with size;
+    // it fails once the nodes touched stop doing so, rather than just reporting a slower score.
+    @Benchmark
+    public Context getContextAfterEachRegistration() {
+        ContextConfig config = new ContextConfig();
+        Context context = null;
+        Graphs.touched = 0;
+        // from the last key down, so every binding's dependencies are already registered
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            Graphs.rebind(config, shape, keys, i);
+            context = config.getContext();
+        }
+        if (Graphs.touched > TOUCHED_PER_REGISTRATION * keys.size())
+            throw new IllegalStateException(Graphs.touched + " nodes touched for " + keys.size() + " registrations");
+        return context;
+    }
+}
@@ -0,0 +1,97 @@
+package org.abbet.di;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Synthetic graphs keyed by java.base classes, so the benchmarks can build thousands of bindings
+// without declaring thousands of component classes.
+public class Graphs {
+    private static final String MODULE = "/modules/java.base/";
+
+    // calls into any node's dependencies or linking, so benchmarks can check how much of the graph they touched
+    static long touched;
+
+    public enum Shape {
+        CHAIN, FAN_OUT, DIAMOND
+    }
+
+    static ContextConfig config(Shape shape, int size) {
+        return config(shape, keys(size));
+    }
+
+    static ContextConfig config(Shape shape, List<Class<?>> keys) {
+        ContextConfig config = new ContextConfig();
+        for (int i = 0; i < keys.size(); i++) {
+            rebind(config, shape, keys, i);
+        }
+        return config;
+    }
+
+    static void rebind(ContextConfig config, Shape shape, List<Class<?>> keys, int index) {
+        config.register(keys.get(index), new Node(dependencies(shape, keys, index)));
+    }
+
+    private static List<Class<?>> dependencies(Shape shape, List<Class<?>> keys, int index) {
+        List<Class<?>> dependencies = new ArrayList<>();
+        switch (shape) {
+            case CHAIN -> {
+                if (index + 1 < keys.size()) dependencies.add(keys.get(index + 1));
+            }
+            case FAN_OUT -> {
+                if (index == 0) dependencies.addAll(keys.subList(1, keys.size()));
+            }
+            case DIAMOND -> {
+                if (index + 1 < keys.size()) dependencies.add(keys.get(index + 1));
+                if (index + 2 < keys.size()) dependencies.add(keys.get(index + 2));
+            }
+        }
+        return dependencies;
+    }
+
+    static List<Class<?>> keys(int size) {
+        try (Stream<Path> paths = Files.walk(FileSystems.getFileSystem(URI.create("jrt:/")).getPath(MODULE, "java"))) {
+            List<Class<?>> keys = paths.map(Path::toString)
+                    .filter(path -> path.endsWith(".class") && !path.contains("$"))
+                    .sorted().limit(size)
+                    .map(Graphs::load).toList();
+            if (keys.size() < size) throw new IllegalArgumentException("not enough classes for " + size + " bindings");
+            return keys;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Class<?> load(String path) {
+        try {
+            return Class.forName(path.substring(MODULE.length(), path.length() - ".class".length()).replace('/', '.'), false, null);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Node(List<Class<?>> dependencies) implements ContextConfig.ComponentProvider<Object> {
+        @Override
+        public Object get(Context context) {
+            return this;
+        }
+
+        @Override
+        public List<Class<?>> getDependencies() {
+            touched++;
+            return dependencies;
+        }
+
+        @Override
+        public ContextConfig.ComponentProvider<Object> link(ContextConfig.Linker linker) {
+            touched++;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.abbet.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolutionBenchmark {
+    @Param({"false", "true"})
+    public boolean factories;
+
+    private Context context;
+    private Handle<ConstructorService> handle;
+
+    @Setup
+    public void setup() {
+        ContextConfig config = new ContextConfig();
+        if (factories) config.enableFactories();
+        config.bind(Repository.class, Repository.class);
+        config.bind(ConstructorService.class, ConstructorService.class);
+        config.bind(FieldService.class, FieldService.class);
+        config.bind(MethodService.class, MethodService.class);
+        config.bind(SingletonService.class, SingletonService.class);
+        context = config.getContext();
+        handle = context.handle(ConstructorService.class);
+    }
+
+    @Benchmark
+    public Object constructorInjection() {
+        return context.get(ConstructorService.class).get();
+    }
+
+    @Benchmark
+    public Object constructorInjectionThroughHandle() {
+        return handle.get();
+    }
+
+    @Benchmark
+    public Object fieldInjection() {
+        return context.get(FieldService.class).get();
+    }
+
+    @Benchmark
+    public Object methodInjection() {
+        return context.get(MethodService.class).get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object contendedPrototype() {
+        return context.get(ConstructorService.class).get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object contendedSingleton() {
+        return context.get(SingletonService.class).get();
+    }
+
+    public static class Repository {
+    }
+
+    public static class ConstructorService {
+        @Inject
+        public ConstructorService(Repository repository) {
+        }
+    }
+
+    public static class FieldService {
+        @Inject
+        Repository repository;
+    }
+
+    public static class MethodService {
+        @Inject
+        void install(Repository repository) {
+        }
+    }
+
+    @Singleton
+    public static class SingletonService {
+        @Inject
+        public SingletonService(Repository repository) {
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.abbet.di;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+// Holds at most one instance per binding per context, bounded by the total weight of everything
+// cached in the scope and evicting the least recently used entries first. An evicted or collected
+// instance is built again through the binding's provider on the next get.
+//
+// The instance lives in the context's linked provider, so it goes away with the context; the scope
+// only tracks recency and weight through weak references. Hits don't block: recency is updated only
+// when the scope's lock is free. A miss is built once under the binding's own lock, or once through
+// a future that concurrent callers share when it is resolved asynchronously.
+public class CacheScope implements Scope {
+    private final long maximumWeight;
+    private final ToLongFunction<Object> weigher;
+    private final boolean softValues;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Entry, Boolean> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private long weight;
+
+    public CacheScope(int maximumSize) {
+        this(maximumSize, instance -> 1, false);
+    }
+
+    public CacheScope(long maximumWeight, ToLongFunction<Object> weigher, boolean softValues) {
+        if (maximumWeight < 1) throw new IllegalArgumentException("maximum weight must be positive");
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.softValues = softValues;
+    }
+
+    @Override
+    public <T> ContextConfig.ComponentProvider<T> create(ContextConfig.ComponentProvider<T> provider) {
+        return new Cached<>(provider);
+    }
+
+    private class Cached<T> implements ContextConfig.ComponentProvider<T> {
+        private final ContextConfig.ComponentProvider<T> provider;
+        private final Entry entry = new Entry(this, collected);
+        private volatile Object value;
+        private CompletableFuture<T> pending;
+
+        Cached(ContextConfig.ComponentProvider<T> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public T get(Context context) {
+            T cached = instance();
+            if (cached != null) {
+                touch(entry);
+                return cached;
+            }
+            CompletableFuture<T> waiting;
+            synchronized (this) {
+                cached = instance();
+                if (cached != null) return cached;
+                if (pending == null) {
+                    T instance = provider.get(context);
+                    cache(this, instance);
+                    return instance;
+                }
+                waiting = pending;
+            }
+            try {
+                return waiting.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+
+        @Override
+        public CompletableFuture<T> getAsync(Context context, Executor executor) {
+            T cached = instance();
+            if (cached != null) {
+                touch(entry);
+                return CompletableFuture.completedFuture(cached);
+            }
+            synchronized (this) {
+                cached = instance();
+                if (cached != null) return CompletableFuture.completedFuture(cached);
+                if (pending != null) return pending;
+                CompletableFuture<T> created = provider.getAsync(context, executor);
+                pending = created;
+                created.whenComplete((instance, failure) -> {
+                    synchronized (this) {
+                        if (failure == null) cache(this, instance);
+                        pending = null;
+                    }
+                });
+                return created;
+            }
+        }
+
+        private T instance() {
+            Object current = value;
+            return (T) (current instanceof SoftReference<?> reference ? reference.get() : current);
+        }
+
+        @Override
+        public List<Class<?>> getDependencies() {
+            return provider.getDependencies();
+        }
+
+        @Override
+        public List<Class<?>> getEagerDependencies() {
+            return provider.getEagerDependencies();
+        }
+    }
+
+    private void touch(Entry entry) {
+        if (!lock.tryLock()) return;
+        try {
+            entries.get(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cache(Cached<?> cached, Object instance) {
+        long weighed = weigher.applyAsLong(instance);
+        if (weighed > maximumWeight) return;
+        lock.lock();
+        try {
+            for (Object dropped = collected.poll(); dropped != null; dropped = collected.poll())
+                if (entries.remove(dropped) != null) weight -= ((Entry) dropped).weight;
+            Entry entry = cached.entry;
+            if (entries.remove(entry) != null) weight -= entry.weight;
+            cached.value = softValues ? new SoftReference<>(instance) : instance;
+            entry.weight = weighed;
+            entries.put(entry, Boolean.TRUE);
+            weight += weighed;
+            Iterator<Entry> eldest = entries.keySet().iterator();
+            while (weight > maximumWeight) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                weight -= evicted.weight;
+                Cached<?> owner = evicted.get();
+                if (owner != null) owner.value = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Entry extends WeakReference<Cached<?>> {
+        private long weight;
+
+        Entry(Cached<?> owner, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.abbet.di;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The constant pool and method table of a class written by hand. Generated methods are straight-line
+// code, so no stack map frames are needed.
+class ClassFile {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int MAGIC = 0xcafebabe;
+    private static final int VERSION = 61;
+
+    private final Map<List<Object>, Integer> constants = new HashMap<>();
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private final DataOutputStream methodsOut = new DataOutputStream(methods);
+    private int count = 1;
+    private int methodCount;
+
+    void method(String name, String descriptor, int maxStack, int maxLocals, byte[] body) throws IOException {
+        int code = utf8("Code");
+        methodsOut.writeShort(ACC_PUBLIC);
+        methodsOut.writeShort(utf8(name));
+        methodsOut.writeShort(utf8(descriptor));
+        methodsOut.writeShort(1);
+        methodsOut.writeShort(code);
+        methodsOut.writeInt(12 + body.length);
+        methodsOut.writeShort(maxStack);
+        methodsOut.writeShort(maxLocals);
+        methodsOut.writeInt(body.length);
+        methodsOut.write(body);
+        methodsOut.writeShort(0);
+        methodsOut.writeShort(0);
+        methodCount++;
+    }
+
+    byte[] toByteArray(int access, String name, String superName, String... interfaces) throws IOException {
+        int thisClass = classRef(name);
+        int superClass = classRef(superName);
+        int[] interfaceClasses = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) interfaceClasses[i] = classRef(interfaces[i]);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream file = new DataOutputStream(bytes);
+        file.writeInt(MAGIC);
+        file.writeShort(0);
+        file.writeShort(VERSION);
+        file.writeShort(count);
+        file.write(pool.toByteArray());
+        file.writeShort(access);
+        file.writeShort(thisClass);
+        file.writeShort(superClass);
+        file.writeShort(interfaceClasses.length);
+        for (int interfaceClass : interfaceClasses) file.writeShort(interfaceClass);
+        file.writeShort(0);
+        file.writeShort(methodCount);
+        file.write(methods.toByteArray());
+        file.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    int utf8(String value) throws IOException {
+        Integer index = constants.get(List.of(1, value));
+        if (index != null) return index;
+        poolOut.writeByte(1);
+        poolOut.writeUTF(value);
+        return add(List.of(1, value));
+    }
+
+    int classRef(String name) throws IOException {
+        Integer index = constants.get(List.of(7, name));
+        if (index != null) return index;
+        int utf8 = utf8(name);
+        poolOut.writeByte(7);
+        poolOut.writeShort(utf8);
+        return add(List.of(7, name));
+    }
+
+    // tag 9 is a field, 10 a class method and 11 an interface method
+    int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+        Integer index = constants.get(List.of(tag, owner, name, descriptor));
+        if (index != null) return index;
+        int ownerClass = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        poolOut.writeByte(12);
+        poolOut.writeShort(nameIndex);
+        poolOut.writeShort(descriptorIndex);
+        int nameAndType = add(List.of(12, name, descriptor));
+        poolOut.writeByte(tag);
+        poolOut.writeShort(ownerClass);
+        poolOut.writeShort(nameAndType);
+        return add(List.of(tag, owner, name, descriptor));
+    }
+
+    private int add(List<Object> key) {
+        constants.put(key, count);
+        return count++;
+    }
+
+    static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+}
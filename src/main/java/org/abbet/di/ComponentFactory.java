@@ -0,0 +1,11 @@
+package org.abbet.di;
+
+import java.util.List;
+
+public interface ComponentFactory<T> {
+    List<Class<?>> getDependencies();
+
+    boolean isProvider(int dependency);
+
+    T create(Object[] dependencies);
+}
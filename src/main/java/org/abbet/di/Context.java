@@ -1,7 +1,23 @@
 package org.abbet.di;
 
+import java.lang.annotation.Annotation;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public interface Context {
     <Type> Optional<Type> get(Class<Type> type);
+
+    <R> R within(Class<? extends Annotation> scope, Supplier<R> work);
+
+    List<Optional<?>> getAll(Class<?>... types);
+
+    <Type> Handle<Type> handle(Class<Type> type);
+
+    <Type> CompletableFuture<Type> getAsync(Class<Type> type);
+
+    <Type> Optional<ObjectPool<Type>> pool(Class<Type> type);
+
+    Context createChild(ContextConfig overrides);
 }
@@ -1,54 +1,372 @@
 package org.abbet.di;
 
+import jakarta.inject.Singleton;
+
+import java.lang.annotation.Annotation;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
 
 import static java.util.Arrays.stream;
 import static java.util.List.of;
 
 public class ContextConfig {
 
-    private Map<Class<?>, ComponentProvider<?>> providers = new HashMap<>();
+    // Bindings may be registered from any number of threads without a lock; getContext works on
+    // an immutable copy taken when it starts.
+    private final Map<Class<?>, ComponentProvider<?>> providers = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Annotation>, Scope> scopes = new ConcurrentHashMap<>();
+    private volatile boolean factories = false;
+    private volatile Executor executor = ForkJoinPool.commonPool();
+    private volatile List<ResolutionListener> listeners;
+
+    // Validation state carried between getContext calls, so that only bindings changed since the
+    // last successful validation, and the components depending on them, are checked again, and only
+    // they are appended to the plan the contexts share. Apart from dirty, which maps each changed
+    // binding to the provider it was changed to, it is only touched while holding the lock of getContext.
+    private final Map<Class<?>, ComponentProvider<?>> dirty = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Class<?>>> validated = new HashMap<>();
+    private final Map<Class<?>, Set<Class<?>>> dependents = new HashMap<>();
+    private final Set<Class<?>> order = new LinkedHashSet<>();
+    private Plan plan = new Plan();
+
+    private final Map<Class<?>, Class<?>> implementations = new ConcurrentHashMap<>();
+    private volatile Path snapshotFile;
+    private volatile Snapshot snapshot;
+    private volatile boolean multibound;
+
+    public enum Initialization {
+        LAZY, EAGER
+    }
+
+    public ContextConfig() {
+        scope(Singleton.class, new Scope() {
+            @Override
+            public <T> ComponentProvider<T> create(ComponentProvider<T> provider) {
+                return new SingletonProvider<>(provider);
+            }
+        });
+        scope(RequestScoped.class, new RequestScope());
+        scope(ResolutionScoped.class, new ResolutionScope());
+        scope(Pooled.class, new PoolScope(16, Duration.ofMinutes(1)));
+        scope(Cached.class, new CacheScope(256));
+    }
+
+    public void scope(Class<? extends Annotation> annotation, Scope scope) {
+        scopes.put(annotation, scope);
+    }
+
+    public void enableFactories() {
+        this.factories = true;
+    }
+
+    public void executor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void snapshot(Path file) {
+        this.snapshotFile = file;
+        this.snapshot = Snapshot.read(file);
+    }
+
+    public synchronized void instrument(ResolutionListener... listeners) {
+        if (this.listeners == null) this.listeners = new CopyOnWriteArrayList<>();
+        this.listeners.addAll(List.of(listeners));
+    }
+
+    // Modules only register bindings, so independent ones are configured in parallel on the executor.
+    public void install(Module... modules) {
+        CompletableFuture<?>[] installed = stream(modules)
+                .map(module -> CompletableFuture.runAsync(() -> module.configure(this), executor))
+                .toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(installed).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
 
     public <Type> void bind(Class<Type> type, Type instance) {
-        providers.put(type, (ComponentProvider<Type>) context -> instance);
+        register(type, new InstanceProvider<>(instance), null);
     }
 
     public <Type, Implementation extends Type>
     void bind(Class<Type> type, Class<Implementation> implementation) {
-        providers.put(type, new InjectionProvider<>(implementation));
+        register(type, provider(type, implementation, annotations(implementation)), implementation);
     }
 
+    @SafeVarargs
+    public final <Type, Implementation extends Type>
+    void bind(Class<Type> type, Class<Implementation> implementation, Class<? extends Annotation>... annotations) {
+        // read element by element: handing the array itself on is what @SafeVarargs can't vouch for
+        List<Class<? extends Annotation>> given = new ArrayList<>(annotations.length);
+        for (Class<? extends Annotation> annotation : annotations) given.add(annotation);
+        register(type, provider(type, implementation, given), implementation);
+    }
+
+    public <Type> void contribute(Class<Type> type, Type instance) {
+        multibind(Multibinding.set(type), null, new InstanceProvider<>(instance));
+    }
+
+    public <Type, Implementation extends Type>
+    void contribute(Class<Type> type, Class<Implementation> implementation) {
+        multibind(Multibinding.set(type), null, provider(type, implementation, annotations(implementation)));
+    }
+
+    public <Type> void contribute(Class<Type> type, String name, Type instance) {
+        multibind(Multibinding.map(type), name, new InstanceProvider<>(instance));
+    }
+
+    public <Type, Implementation extends Type>
+    void contribute(Class<Type> type, String name, Class<Implementation> implementation) {
+        multibind(Multibinding.map(type), name, provider(type, implementation, annotations(implementation)));
+    }
+
+    private void multibind(Class<?> key, String name, ComponentProvider<?> contribution) {
+        multibound = true;
+        // contributions to the same key from different threads must not overwrite each other
+        providers.compute(key, (component, current) -> {
+            Multibinding multibinding = (current instanceof Multibinding existing ? existing : new Multibinding(name != null)).add(name, contribution);
+            dirty.put(component, multibinding);
+            implementations.remove(component);
+            return multibinding;
+        });
+    }
+
+    private static List<Class<? extends Annotation>> annotations(Class<?> implementation) {
+        return stream(implementation.getAnnotations()).<Class<? extends Annotation>>map(Annotation::annotationType).toList();
+    }
+
+    private <Implementation> ComponentProvider<Implementation> provider(Class<?> type, Class<Implementation> implementation,
+                                                                        List<Class<? extends Annotation>> annotations) {
+        List<Class<? extends Annotation>> scopeAnnotations = annotations.stream()
+                .filter(annotation -> scopes.containsKey(annotation) || annotation.isAnnotationPresent(jakarta.inject.Scope.class)).toList();
+        if (scopeAnnotations.size() > 1) throw new IllegalComponentException();
+        ComponentProvider<Implementation> provider = FactoryProvider.of(implementation).orElseGet(() -> {
+            InjectionProvider.Injection injection = snapshot == null ? null : snapshot.injection(type, implementation);
+            return injection == null ? new InjectionProvider<>(implementation, factories) : new InjectionProvider<>(injection, factories);
+        });
+        if (annotations.contains(Lazy.class)) {
+            if (!type.isInterface()) throw new IllegalComponentException();
+            provider = new LazyProvider<>(type, provider);
+        }
+        for (Class<? extends Annotation> annotation : scopeAnnotations) {
+            Scope scope = scopes.get(annotation);
+            if (scope == null) throw new IllegalComponentException();
+            provider = new ScopedProvider<>(scope, provider);
+        }
+        return provider;
+    }
+
+
+    void register(Class<?> type, ComponentProvider<?> provider) {
+        register(type, provider, null);
+    }
+
+    // A binding is marked dirty before it becomes visible, so a getContext that copies it also validates it.
+    private void register(Class<?> type, ComponentProvider<?> provider, Class<?> implementation) {
+        providers.compute(type, (component, current) -> {
+            dirty.put(component, provider);
+            if (implementation == null) implementations.remove(component);
+            else implementations.put(component, implementation);
+            return provider;
+        });
+    }
+
+    Map<Class<?>, ComponentProvider<?>> bindings() {
+        return Map.copyOf(providers);
+    }
 
     public Context getContext() {
-        providers.keySet().forEach(component -> checkDependency(component, new Stack<>()));
-        return new Context() {
-            @Override
-            public <Type> Optional<Type> get(Class<Type> type) {
-                return Optional.ofNullable(providers.get(type)).map(provider -> (Type) provider.get(this));
-            }
-        };
+        return getContext(Initialization.LAZY);
     }
 
+    // Only what changed since the last call is validated and appended to the plan, and the new
+    // context links its bindings on first lookup, so a getContext after each of N registrations
+    // costs O(N) in total; GetContextBenchmark.getContextAfterEachRegistration checks that it does.
+    public synchronized Context getContext(Initialization initialization) {
+        long start = System.nanoTime();
+        validate();
+        return freeze(plan, order, initialization, start);
+    }
 
-    private void checkDependency(Class<?> component, Stack<Class<?>> visits) {
-        for (Class<?> dependency : providers.get(component).getDependencies()) {
-            if (!providers.containsKey(dependency)) {
-                throw new DependencyNotFoundException(component, dependency);
-            }
-            if (visits.contains(dependency)) throw new CyclicDependencyFoundException(visits);
-            visits.push(dependency);
-            checkDependency(dependency, visits);
-            visits.pop();
+    public Context getContext(Class<?>... roots) {
+        return getContext(Initialization.LAZY, roots);
+    }
+
+    // Only the transitive closure of the roots is validated and frozen, so bindings nothing
+    // reaches may be incomplete without failing the context.
+    public Context getContext(Initialization initialization, Class<?>... roots) {
+        long start = System.nanoTime();
+        Map<Class<?>, ComponentProvider<?>> bindings = Map.copyOf(providers);
+        Set<Class<?>> reachable = reachable(bindings, roots);
+        checkDependencies(bindings, reachable);
+        DependencyGraph.Sorted<Class<?>> sorted = DependencyGraph.sort(reachable, component -> bindings.get(component).getEagerDependencies());
+        if (!sorted.cycles().isEmpty()) throw new CyclicDependencyFoundException(sorted.cycles());
+        return freeze(Plan.of(sorted.order(), bindings::get), sorted.order(), initialization, start);
+    }
+
+    // order is only read before returning, so the live one can be passed while holding the lock
+    private Context freeze(Plan plan, Collection<Class<?>> order, Initialization initialization, long start) {
+        ResolutionListener listener = listener();
+        long validated = System.nanoTime();
+        FrozenContext context = new FrozenContext(plan, listener, scopes, executor);
+        long linked = System.nanoTime();
+        if (initialization == Initialization.EAGER) context.initialize(order);
+        if (listener != null) {
+            Map<Class<?>, List<Class<?>>> dependencies = new LinkedHashMap<>();
+            for (Class<?> component : order) dependencies.put(component, context.binding(component).getEagerDependencies());
+            listener.created(new ContextCreation(Collections.unmodifiableMap(dependencies), validated - start, linked - validated, System.nanoTime() - linked));
+        }
+        return context;
+    }
+
+    public Set<Class<?>> getUnreachable(Class<?>... roots) {
+        Map<Class<?>, ComponentProvider<?>> bindings = Map.copyOf(providers);
+        Set<Class<?>> reachable = reachable(bindings, roots);
+        Set<Class<?>> unreachable = new HashSet<>(bindings.keySet());
+        unreachable.removeAll(reachable);
+        return Collections.unmodifiableSet(unreachable);
+    }
+
+    private static Set<Class<?>> reachable(Map<Class<?>, ComponentProvider<?>> bindings, Class<?>... roots) {
+        Set<Class<?>> reachable = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        for (Class<?> root : roots) {
+            if (!bindings.containsKey(root)) throw new DependencyNotFoundException(null, root);
+            if (reachable.add(root)) pending.push(root);
+        }
+        while (!pending.isEmpty())
+            for (Class<?> dependency : bindings.get(pending.pop()).getDependencies())
+                if (bindings.containsKey(dependency) && reachable.add(dependency)) pending.push(dependency);
+        return reachable;
+    }
+
+    private static void checkDependencies(Map<Class<?>, ComponentProvider<?>> bindings, Collection<Class<?>> components) {
+        for (Class<?> component : components)
+            for (Class<?> dependency : bindings.get(component).getDependencies())
+                if (!bindings.containsKey(dependency)) throw new DependencyNotFoundException(component, dependency);
+    }
+
+    private void validate() {
+        // bindings registered after the copy was taken are left dirty for the next call
+        Map<Class<?>, ComponentProvider<?>> changed = new HashMap<>(dirty);
+        if (changed.isEmpty()) return;
+        if (restore(changed)) return;
+        Function<Class<?>, ComponentProvider<?>> bindings = component -> changed.containsKey(component) ? changed.get(component) : plan.binding(component);
+        changed.forEach((component, binding) -> {
+            for (Class<?> dependency : binding.getDependencies())
+                if (bindings.apply(dependency) == null) throw new DependencyNotFoundException(component, dependency);
+        });
+
+        // a new cycle has to pass through a changed binding, so every component on it depends on one
+        Set<Class<?>> affected = new HashSet<>(changed.keySet());
+        Deque<Class<?>> pending = new ArrayDeque<>(changed.keySet());
+        while (!pending.isEmpty())
+            for (Class<?> dependent : dependents.getOrDefault(pending.pop(), Set.of()))
+                if (affected.add(dependent)) pending.push(dependent);
+        DependencyGraph.Sorted<Class<?>> sorted = DependencyGraph.sort(affected,
+                component -> bindings.apply(component).getEagerDependencies().stream().filter(affected::contains).toList());
+        if (!sorted.cycles().isEmpty()) throw new CyclicDependencyFoundException(sorted.cycles());
+
+        for (Class<?> component : changed.keySet()) {
+            List<Class<?>> dependencies = changed.get(component).getEagerDependencies();
+            List<Class<?>> previous = validated.put(component, dependencies);
+            if (previous != null) for (Class<?> dependency : previous) dependents.get(dependency).remove(component);
+            for (Class<?> dependency : dependencies) dependents.computeIfAbsent(dependency, key -> new HashSet<>()).add(component);
+        }
+        // components outside the affected set never depend on one inside it, so they keep their place
+        affected.forEach(order::remove);
+        order.addAll(sorted.order());
+        // Replaced bindings stay in the plan for the contexts still reading them. Once they would
+        // outnumber the live ones, later contexts get a fresh plan instead, which keeps appending
+        // amortized O(1) per changed binding.
+        if (plan.size() + changed.size() > 2 * order.size()) plan = Plan.of(order, bindings);
+        else changed.forEach(plan::append);
+        // a binding replaced again meanwhile still maps to its newer provider and stays dirty
+        changed.forEach(dirty::remove);
+        if (snapshotFile != null) Snapshot.write(snapshotFile, order, validated, implementations);
+        snapshotFile = null;
+        snapshot = null;
+    }
 
+    // The snapshot stands in for validation only while every binding still matches what it recorded.
+    // Only the first validation can be restored, when every binding is still dirty.
+    private boolean restore(Map<Class<?>, ComponentProvider<?>> changed) {
+        Snapshot current = snapshot;
+        snapshot = null;
+        // contributions are not recorded, so the stored order can't be trusted once there are any
+        if (current == null || multibound || !order.isEmpty() || !current.matches(changed, implementations))
+            return false;
+        Map<String, Class<?>> components = new HashMap<>();
+        for (Class<?> component : changed.keySet()) components.put(component.getName(), component);
+        for (Snapshot.Entry entry : current.entries()) {
+            Class<?> component = components.get(entry.component());
+            List<Class<?>> dependencies = changed.get(component).getEagerDependencies();
+            validated.put(component, dependencies);
+            for (Class<?> dependency : dependencies) dependents.computeIfAbsent(dependency, key -> new HashSet<>()).add(component);
+            order.add(component);
+            plan.append(component, changed.get(component));
         }
+        changed.forEach(dirty::remove);
+        snapshotFile = null;
+        return true;
+    }
+
+    private ResolutionListener listener() {
+        List<ResolutionListener> listeners = this.listeners;
+        if (listeners == null) return null;
+        ResolutionListener[] current = listeners.toArray(ResolutionListener[]::new);
+        return new ResolutionListener() {
+            @Override
+            public void resolved(Resolution resolution) {
+                for (ResolutionListener listener : current) listener.resolved(resolution);
+            }
+
+            @Override
+            public void created(ContextCreation creation) {
+                for (ResolutionListener listener : current) listener.created(creation);
+            }
+        };
     }
 
-    interface ComponentProvider<T> {
+    public interface ComponentProvider<T> {
         T get(Context context);
 
+        default CompletableFuture<T> getAsync(Context context, Executor executor) {
+            return CompletableFuture.supplyAsync(() -> get(context), executor);
+        }
+
         default List<Class<?>> getDependencies() {
             return of();
         }
+
+        default List<Class<?>> getEagerDependencies() {
+            return getDependencies();
+        }
+
+        default ComponentProvider<T> link(Linker linker) {
+            return this;
+        }
+    }
+
+    public interface Module {
+        void configure(ContextConfig config);
+    }
+
+    public interface Linker {
+        ComponentProvider<?> get(Class<?> dependency);
+
+        default Class<?> component() {
+            return null;
+        }
+
+        default ResolutionListener listener() {
+            return null;
+        }
     }
 
 }
@@ -0,0 +1,9 @@
+package org.abbet.di;
+
+import java.util.List;
+import java.util.Map;
+
+// dependencies maps every component in the context to the dependencies it is constructed from
+public record ContextCreation(Map<Class<?>, List<Class<?>>> dependencies,
+                              long validationNanos, long linkingNanos, long initializationNanos) {
+}
@@ -5,17 +5,29 @@ import java.util.stream.Collectors;
 
 public class CyclicDependencyFoundException extends RuntimeException {
     private Set<Class<?>> components = new HashSet<>();
+    private List<List<Class<?>>> cycles = new ArrayList<>();
 
     public CyclicDependencyFoundException(Class<?>... component) {
         components.addAll(Arrays.stream(component).collect(Collectors.toSet()));
+        cycles.add(List.of(component));
     }
 
 
     public CyclicDependencyFoundException(List<Class<?>> visits) {
         components.addAll(visits);
+        cycles.add(List.copyOf(visits));
+    }
+
+    public CyclicDependencyFoundException(Collection<List<Class<?>>> cycles) {
+        cycles.forEach(components::addAll);
+        this.cycles.addAll(cycles);
     }
 
     public Class<?>[] getComponents() {
         return components.toArray(Class<?>[]::new);
     }
+
+    public List<List<Class<?>>> getCycles() {
+        return cycles;
+    }
 }
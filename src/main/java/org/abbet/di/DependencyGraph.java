@@ -0,0 +1,72 @@
+package org.abbet.di;
+
+import java.util.*;
+import java.util.function.Function;
+
+class DependencyGraph {
+
+    record Sorted<N>(List<N> order, List<List<N>> cycles) {
+    }
+
+    static <N> Sorted<N> sort(Iterable<N> roots, Function<N, ? extends Collection<N>> dependencies) {
+        Map<N, Node<N>> nodes = new HashMap<>();
+        Deque<Node<N>> path = new ArrayDeque<>();
+        Deque<Node<N>> component = new ArrayDeque<>();
+        List<N> order = new ArrayList<>();
+        List<List<N>> cycles = new ArrayList<>();
+
+        for (N root : roots) {
+            if (nodes.containsKey(root)) continue;
+            path.push(visit(root, nodes, component, dependencies));
+            while (!path.isEmpty()) {
+                Node<N> node = path.peek();
+                if (node.next.hasNext()) {
+                    N dependency = node.next.next();
+                    Node<N> target = nodes.get(dependency);
+                    if (target == null) path.push(visit(dependency, nodes, component, dependencies));
+                    else if (target.onStack) node.low = Math.min(node.low, target.index);
+                    continue;
+                }
+                path.pop();
+                if (!path.isEmpty()) path.peek().low = Math.min(path.peek().low, node.low);
+                if (node.low != node.index) continue;
+
+                List<N> members = new ArrayList<>();
+                Node<N> member;
+                do {
+                    member = component.pop();
+                    member.onStack = false;
+                    members.add(member.value);
+                } while (member != node);
+                if (members.size() > 1 || node.selfLoop) cycles.add(members);
+                else order.add(node.value);
+            }
+        }
+        return new Sorted<>(order, cycles);
+    }
+
+    private static <N> Node<N> visit(N value, Map<N, Node<N>> nodes, Deque<Node<N>> component, Function<N, ? extends Collection<N>> dependencies) {
+        Collection<N> edges = dependencies.apply(value);
+        Node<N> node = new Node<>(value, nodes.size(), edges.iterator(), edges.contains(value));
+        nodes.put(value, node);
+        component.push(node);
+        return node;
+    }
+
+    private static class Node<N> {
+        final N value;
+        final int index;
+        final Iterator<N> next;
+        final boolean selfLoop;
+        int low;
+        boolean onStack = true;
+
+        Node(N value, int index, Iterator<N> next, boolean selfLoop) {
+            this.value = value;
+            this.index = index;
+            this.low = index;
+            this.next = next;
+            this.selfLoop = selfLoop;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.abbet.di;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.stream;
+
+class FactoryProvider<T> implements ContextConfig.ComponentProvider<T> {
+    static final String SUFFIX = "_Factory";
+
+    private static final ClassValue<Optional<ComponentFactory<?>>> FACTORIES = new ClassValue<>() {
+        @Override
+        protected Optional<ComponentFactory<?>> computeValue(Class<?> implementation) {
+            try {
+                Class<?> generated = Class.forName(implementation.getName().replace("$", "$$") + SUFFIX, true, implementation.getClassLoader());
+                if (!ComponentFactory.class.isAssignableFrom(generated)) return Optional.empty();
+                return Optional.of((ComponentFactory<?>) generated.getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private final ComponentFactory<T> factory;
+    private final InjectionProvider.ComponentRef[] refs;
+
+    FactoryProvider(ComponentFactory<T> factory) {
+        this.factory = factory;
+        List<Class<?>> dependencies = factory.getDependencies();
+        this.refs = new InjectionProvider.ComponentRef[dependencies.size()];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = new InjectionProvider.ComponentRef(dependencies.get(i), factory.isProvider(i));
+        }
+    }
+
+    static <T> Optional<ContextConfig.ComponentProvider<T>> of(Class<T> implementation) {
+        return FACTORIES.get(implementation).map(factory -> new FactoryProvider<>((ComponentFactory<T>) factory));
+    }
+
+    @Override
+    public T get(Context context) {
+        return link(type -> current -> current.get(type).get()).get(context);
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<T> link(ContextConfig.Linker linker) {
+        return new Linked(InjectionProvider.link(linker, refs), Instrumentation.of(linker));
+    }
+
+    @Override
+    public List<Class<?>> getDependencies() {
+        return factory.getDependencies();
+    }
+
+    @Override
+    public List<Class<?>> getEagerDependencies() {
+        return stream(refs).filter(ref -> !ref.provider()).map(InjectionProvider.ComponentRef::component).collect(Collectors.toList());
+    }
+
+    private class Linked implements ContextConfig.ComponentProvider<T> {
+        private final ContextConfig.ComponentProvider<?>[] dependencies;
+        private final Instrumentation instrumentation;
+
+        Linked(ContextConfig.ComponentProvider<?>[] dependencies, Instrumentation instrumentation) {
+            this.dependencies = dependencies;
+            this.instrumentation = instrumentation;
+        }
+
+        @Override
+        public T get(Context context) {
+            if (instrumentation != null) return record(context);
+            return factory.create(InjectionProvider.resolve(context, dependencies));
+        }
+
+        @Override
+        public CompletableFuture<T> getAsync(Context context, Executor executor) {
+            ResolutionEvent event = instrumentation == null ? null : instrumentation.begin();
+            long start = System.nanoTime();
+            return InjectionProvider.resolveAsync(context, dependencies, executor).thenApplyAsync(arguments -> {
+                long constructing = System.nanoTime();
+                T instance = factory.create(arguments);
+                long end = System.nanoTime();
+                if (instrumentation != null) instrumentation.end(event, instance.getClass(), end - constructing, 0, 0, end - start);
+                return instance;
+            }, executor);
+        }
+
+        private T record(Context context) {
+            ResolutionEvent event = instrumentation.begin();
+            long start = System.nanoTime();
+            Object[] arguments = InjectionProvider.resolve(context, dependencies);
+            long constructing = System.nanoTime();
+            T instance = factory.create(arguments);
+            long end = System.nanoTime();
+            instrumentation.end(event, instance.getClass(), end - constructing, 0, 0, end - start);
+            return instance;
+        }
+
+        @Override
+        public List<Class<?>> getDependencies() {
+            return FactoryProvider.this.getDependencies();
+        }
+
+        @Override
+        public List<Class<?>> getEagerDependencies() {
+            return FactoryProvider.this.getEagerDependencies();
+        }
+    }
+}
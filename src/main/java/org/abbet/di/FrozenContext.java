@@ -0,0 +1,377 @@
+package org.abbet.di;
+
+import java.lang.annotation.Annotation;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+class FrozenContext implements Context {
+    private static final ContextConfig.ComponentProvider<?> LINKING = context -> null;
+
+    private final FrozenContext parent;
+    private final Plan plan;
+    private final int size;
+    // one slot per plan id, allocated and filled as bindings are first looked up
+    private volatile AtomicReferenceArray<ContextConfig.ComponentProvider<?>> providers;
+    private final ResolutionListener listener;
+    private final Executor executor;
+    private final boolean sessions;
+    private volatile Map<Class<?>, List<Class<?>>> dependents;
+
+    private final Map<Class<? extends Annotation>, Scope> scopes;
+
+    FrozenContext(Plan plan, ResolutionListener listener, Map<Class<? extends Annotation>, Scope> scopes, Executor executor) {
+        this(null, plan, listener, Map.copyOf(scopes), executor);
+    }
+
+    // A child only holds the bindings it overrides plus their transitive dependents; every other
+    // lookup falls through to the parent, sharing its linked providers and singletons.
+    private FrozenContext(FrozenContext parent, Plan plan, ResolutionListener listener,
+                          Map<Class<? extends Annotation>, Scope> scopes, Executor executor) {
+        this.parent = parent;
+        this.plan = plan;
+        this.size = plan.size();
+        this.listener = listener;
+        this.executor = executor;
+        this.scopes = scopes;
+        this.sessions = parent != null && parent.sessions || plan.sessions(size);
+    }
+
+    @Override
+    public <Type> Optional<Type> get(Class<Type> type) {
+        ContextConfig.ComponentProvider<?> provider = provider(type);
+        if (provider == null) return Optional.empty();
+        return Optional.ofNullable((Type) (sessions ? resolve(provider) : provider.get(this)));
+    }
+
+    @Override
+    public List<Optional<?>> getAll(Class<?>... types) {
+        if (sessions) {
+            Session session = new Session();
+            try {
+                return session.getAll(types);
+            } finally {
+                session.close();
+            }
+        }
+        List<Optional<?>> resolved = new ArrayList<>(types.length);
+        for (Class<?> type : types) resolved.add(get(type));
+        return resolved;
+    }
+
+    @Override
+    public <Type> CompletableFuture<Type> getAsync(Class<Type> type) {
+        ContextConfig.ComponentProvider<?> provider = provider(type);
+        if (provider == null) return CompletableFuture.failedFuture(new NoSuchElementException(type.getName()));
+        if (!sessions) return (CompletableFuture<Type>) provider.getAsync(this, executor);
+        Session session = new Session();
+        return (CompletableFuture<Type>) provider.getAsync(session, executor).whenComplete((instance, failure) -> session.close());
+    }
+
+    // the lookup happens once here, so get() is a direct call into the linked provider
+    @Override
+    public <Type> Handle<Type> handle(Class<Type> type) {
+        ContextConfig.ComponentProvider<Type> provider = (ContextConfig.ComponentProvider<Type>) provider(type);
+        if (provider == null) throw new DependencyNotFoundException(null, type);
+        if (sessions && reachesResolutionScope(type)) return () -> resolve(provider);
+        return () -> provider.get(this);
+    }
+
+    private <T> T resolve(ContextConfig.ComponentProvider<T> provider) {
+        Session session = new Session();
+        try {
+            return provider.get(session);
+        } finally {
+            session.close();
+        }
+    }
+
+    // A Provider is linked against the context resolving its dependent, which may be a session. Once
+    // that resolution is over, the session is dropped and each call opens one of its own instead.
+    static Context current(Context context) {
+        return context instanceof Session session && session.closed ? session.enclosing() : context;
+    }
+
+    // decided once per handle, so handles whose graph has no resolution scoped binding never open a session
+    private boolean reachesResolutionScope(Class<?> type) {
+        Set<Class<?>> visited = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>(List.of(type));
+        while (!pending.isEmpty()) {
+            ContextConfig.ComponentProvider<?> binding = binding(pending.pop());
+            if (binding == null) continue;
+            if (resolutionScoped(binding)) return true;
+            for (Class<?> dependency : binding.getDependencies())
+                if (visited.add(dependency)) pending.push(dependency);
+        }
+        return false;
+    }
+
+    // a contribution is scoped on its own, so a multibinding counts if any of its contributions does
+    static boolean resolutionScoped(ContextConfig.ComponentProvider<?> binding) {
+        if (binding instanceof Multibinding multibinding) return multibinding.anyContribution(FrozenContext::resolutionScoped);
+        return binding instanceof ScopedProvider<?> scoped && scoped.scope() instanceof ResolutionScope;
+    }
+
+    @Override
+    public <Type> Optional<ObjectPool<Type>> pool(Class<Type> type) {
+        if (provider(type) instanceof PoolScope.Pool<?> pool) return Optional.of(((PoolScope.Pool<Type>) pool).in(this));
+        return Optional.empty();
+    }
+
+    @Override
+    public Context createChild(ContextConfig overrides) {
+        Map<Class<?>, ContextConfig.ComponentProvider<?>> overridden = overrides.bindings();
+        Map<Class<?>, List<Class<?>>> dependents = dependents();
+        Set<Class<?>> affected = new HashSet<>(overridden.keySet());
+        Deque<Class<?>> pending = new ArrayDeque<>(overridden.keySet());
+        while (!pending.isEmpty())
+            for (Class<?> dependent : dependents.getOrDefault(pending.pop(), List.of()))
+                if (affected.add(dependent)) pending.push(dependent);
+
+        Map<Class<?>, ContextConfig.ComponentProvider<?>> bindings = new HashMap<>();
+        for (Class<?> component : affected)
+            bindings.put(component, overridden.containsKey(component) ? overridden.get(component) : binding(component));
+        bindings.forEach((component, binding) -> {
+            for (Class<?> dependency : binding.getDependencies())
+                if (!bindings.containsKey(dependency) && binding(dependency) == null)
+                    throw new DependencyNotFoundException(component, dependency);
+        });
+        DependencyGraph.Sorted<Class<?>> sorted = DependencyGraph.sort(affected,
+                component -> bindings.get(component).getEagerDependencies().stream().filter(affected::contains).toList());
+        if (!sorted.cycles().isEmpty()) throw new CyclicDependencyFoundException(sorted.cycles());
+        return new FrozenContext(this, Plan.of(sorted.order(), bindings::get), listener, scopes, executor);
+    }
+
+    ContextConfig.ComponentProvider<?> provider(Class<?> type) {
+        int id = plan.id(type, size);
+        if (id < 0) return parent == null ? null : parent.provider(type);
+        AtomicReferenceArray<ContextConfig.ComponentProvider<?>> linked = providers;
+        ContextConfig.ComponentProvider<?> provider = linked == null ? null : linked.get(id);
+        return provider != null && provider != LINKING ? provider : link(id);
+    }
+
+    // Bindings are linked when first looked up rather than when the context is created, so a new
+    // context costs nothing per binding it holds. Linking one links its dependencies the same way,
+    // recursing as deep as resolving it would; a dependency still being linked further up, as over
+    // a lazy edge, is reached through a provider that looks it up on each call.
+    private synchronized ContextConfig.ComponentProvider<?> link(int id) {
+        if (providers == null) providers = new AtomicReferenceArray<>(size);
+        ContextConfig.ComponentProvider<?> provider = providers.get(id);
+        if (provider == LINKING) return forward(plan.component(id));
+        if (provider != null) return provider;
+        providers.set(id, LINKING);
+        try {
+            provider = plan.binding(id).link(new PlanLinker(plan.component(id), listener));
+        } finally {
+            providers.set(id, provider);
+        }
+        return provider;
+    }
+
+    private ContextConfig.ComponentProvider<?> forward(Class<?> component) {
+        return new ContextConfig.ComponentProvider<>() {
+            @Override
+            public Object get(Context context) {
+                return provider(component).get(context);
+            }
+
+            @Override
+            public CompletableFuture<Object> getAsync(Context context, Executor executor) {
+                return (CompletableFuture<Object>) provider(component).getAsync(context, executor);
+            }
+        };
+    }
+
+    ContextConfig.ComponentProvider<?> binding(Class<?> type) {
+        int id = plan.id(type, size);
+        if (id >= 0) return plan.binding(id);
+        return parent == null ? null : parent.binding(type);
+    }
+
+    private Map<Class<?>, List<Class<?>>> dependents() {
+        Map<Class<?>, List<Class<?>>> current = dependents;
+        if (current != null) return current;
+        current = new HashMap<>();
+        Set<Class<?>> visible = new HashSet<>();
+        for (FrozenContext context = this; context != null; context = context.parent)
+            for (int id = context.size - 1; id >= 0; id--) {
+                // the latest id of a rebound component comes first, hiding the ones it replaced
+                Class<?> component = context.plan.component(id);
+                if (visible.add(component))
+                    for (Class<?> dependency : context.plan.binding(id).getDependencies())
+                        current.computeIfAbsent(dependency, key -> new ArrayList<>()).add(component);
+            }
+        return dependents = current;
+    }
+
+    @Override
+    public <R> R within(Class<? extends Annotation> scope, Supplier<R> work) {
+        Scope current = scopes.get(scope);
+        if (current == null) throw new IllegalArgumentException("unknown scope " + scope.getName());
+        return current.within(work);
+    }
+
+    // order lists the components so that each comes after its eager dependencies
+    void initialize(Collection<Class<?>> order) {
+        Map<Class<?>, CompletableFuture<?>> initialized = new HashMap<>();
+        for (Class<?> component : order) {
+            CompletableFuture<?>[] ready = binding(component).getEagerDependencies().stream()
+                    .map(initialized::get).filter(Objects::nonNull).toArray(CompletableFuture<?>[]::new);
+            ContextConfig.ComponentProvider<?> provider = provider(component);
+            initialized.put(component, provider instanceof SingletonProvider<?>
+                    ? CompletableFuture.allOf(ready).thenRunAsync(() -> provider.get(this), executor) : CompletableFuture.allOf(ready));
+        }
+        try {
+            CompletableFuture.allOf(initialized.values().toArray(CompletableFuture<?>[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    // Stands in for the context during one top-level resolution, carrying the instances memoized
+    // by resolution scoped bindings; everything else is answered by the enclosing context.
+    class Session implements Context {
+        // a future is claimed before building, so branches resolved in parallel wait for one instance
+        private final Map<Object, CompletableFuture<Object>> instances = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        void close() {
+            closed = true;
+            instances.clear();
+        }
+
+        private FrozenContext enclosing() {
+            return FrozenContext.this;
+        }
+
+        <T> T memoize(Object key, ContextConfig.ComponentProvider<T> provider) {
+            CompletableFuture<Object> created = new Building(Thread.currentThread());
+            CompletableFuture<Object> existing = instances.putIfAbsent(key, created);
+            if (existing != null) {
+                // reached again by the thread building it, as through a Provider called in its constructor,
+                // so joining would wait on itself forever
+                if (existing instanceof Building building && building.owner == Thread.currentThread() && !building.isDone()) {
+                    Class<?> component = component(key);
+                    throw component == null ? new CyclicDependencyFoundException() : new CyclicDependencyFoundException(component);
+                }
+                try {
+                    return (T) existing.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException cause) throw cause;
+                    throw e;
+                }
+            }
+            try {
+                T instance = provider.get(this);
+                created.complete(instance);
+                return instance;
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        // only looked up on failure; a contribution to a multibinding has no component of its own
+        private Class<?> component(Object key) {
+            for (FrozenContext context = FrozenContext.this; context != null; context = context.parent) {
+                AtomicReferenceArray<ContextConfig.ComponentProvider<?>> providers = context.providers;
+                if (providers == null) continue;
+                for (int id = 0; id < providers.length(); id++)
+                    if (providers.get(id) == key) return context.plan.component(id);
+            }
+            return null;
+        }
+
+        <T> CompletableFuture<T> memoizeAsync(Object key, ContextConfig.ComponentProvider<T> provider) {
+            CompletableFuture<Object> created = new CompletableFuture<>();
+            CompletableFuture<Object> existing = instances.putIfAbsent(key, created);
+            if (existing != null) return (CompletableFuture<T>) existing;
+            provider.getAsync(this, executor).whenComplete((instance, failure) -> {
+                if (failure != null) created.completeExceptionally(failure);
+                else created.complete(instance);
+            });
+            return (CompletableFuture<T>) created;
+        }
+
+        @Override
+        public <Type> Optional<Type> get(Class<Type> type) {
+            ContextConfig.ComponentProvider<?> provider = provider(type);
+            if (provider == null) return Optional.empty();
+            return Optional.ofNullable((Type) provider.get(this));
+        }
+
+        @Override
+        public List<Optional<?>> getAll(Class<?>... types) {
+            List<Optional<?>> resolved = new ArrayList<>(types.length);
+            for (Class<?> type : types) resolved.add(get(type));
+            return resolved;
+        }
+
+        @Override
+        public <Type> CompletableFuture<Type> getAsync(Class<Type> type) {
+            ContextConfig.ComponentProvider<?> provider = provider(type);
+            if (provider == null) return CompletableFuture.failedFuture(new NoSuchElementException(type.getName()));
+            return (CompletableFuture<Type>) provider.getAsync(this, executor);
+        }
+
+        @Override
+        public <Type> Handle<Type> handle(Class<Type> type) {
+            ContextConfig.ComponentProvider<Type> provider = (ContextConfig.ComponentProvider<Type>) provider(type);
+            if (provider == null) throw new DependencyNotFoundException(null, type);
+            return () -> provider.get(this);
+        }
+
+        @Override
+        public <R> R within(Class<? extends Annotation> scope, Supplier<R> work) {
+            return FrozenContext.this.within(scope, work);
+        }
+
+        @Override
+        public <Type> Optional<ObjectPool<Type>> pool(Class<Type> type) {
+            return FrozenContext.this.pool(type);
+        }
+
+        @Override
+        public Context createChild(ContextConfig overrides) {
+            return FrozenContext.this.createChild(overrides);
+        }
+    }
+
+    private static class Building extends CompletableFuture<Object> {
+        private final Thread owner;
+
+        Building(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    private class PlanLinker implements ContextConfig.Linker {
+        private final Class<?> component;
+        private final ResolutionListener listener;
+
+        PlanLinker(Class<?> component, ResolutionListener listener) {
+            this.component = component;
+            this.listener = listener;
+        }
+
+        @Override
+        public ContextConfig.ComponentProvider<?> get(Class<?> dependency) {
+            return provider(dependency);
+        }
+
+        @Override
+        public Class<?> component() {
+            return component;
+        }
+
+        @Override
+        public ResolutionListener listener() {
+            return listener;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.abbet.di;
+
+import java.lang.reflect.InvocationTargetException;
+
+// Base of the injectors InjectorClassWriter generates, which live in the component's package and so
+// need a public superclass. Failures are wrapped the way reflection wraps them.
+public abstract class GeneratedInjector implements InjectionProvider.Injector<Object> {
+    protected GeneratedInjector() {
+    }
+
+    protected abstract Object create(Object[] dependencies);
+
+    protected abstract void setFields(Object instance, Object[] dependencies);
+
+    protected abstract void callMethods(Object instance, Object[][] dependencies);
+
+    @Override
+    public final Object construct(Object[] dependencies) throws ReflectiveOperationException {
+        try {
+            return create(dependencies);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    @Override
+    public final void inject(Object instance, Object[] dependencies) throws ReflectiveOperationException {
+        try {
+            setFields(instance, dependencies);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    @Override
+    public final void invoke(Object instance, Object[][] dependencies) throws ReflectiveOperationException {
+        try {
+            callMethods(instance, dependencies);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package org.abbet.di;
+
+public interface Handle<T> {
+    T get();
+}
@@ -1,9 +1,14 @@
 package org.abbet.di;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 
 import java.lang.reflect.*;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -12,44 +17,327 @@ import static java.util.Arrays.stream;
 import static java.util.stream.Stream.concat;
 
 class InjectionProvider<T> implements ContextConfig.ComponentProvider<T> {
+    private static final ClassValue<Injection> INJECTIONS = new ClassValue<>() {
+        @Override
+        protected Injection computeValue(Class<?> component) {
+            return Injection.of(component);
+        }
+    };
+
+    // The generated injector is stateless and only depends on the injected members, so it is defined
+    // once per class and member list, however many providers are created for the class.
+    private static final ClassValue<Map<List<Member>, Optional<GeneratedInjector>>> INJECTORS = new ClassValue<>() {
+        @Override
+        protected Map<List<Member>, Optional<GeneratedInjector>> computeValue(Class<?> component) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private Constructor<T> injectConstructor;
     private List<Field> injectFields;
     private List<Method> injectMethods;
+    private ComponentRef[] constructorRefs;
+    private ComponentRef[] fieldRefs;
+    private ComponentRef[][] methodRefs;
+    private List<Class<?>> dependencies;
+    private List<Class<?>> eagerDependencies;
+    private Injector<T> injector;
 
     public InjectionProvider(Class<T> component) {
-        if (Modifier.isAbstract(component.getModifiers())) throw new IllegalComponentException();
-        this.injectConstructor = getInjectConstructor(component);
-        this.injectFields = getInjectFields(component);
-        this.injectMethods = getInjectMethods(component);
-        if (injectFields.stream().anyMatch(f -> Modifier.isFinal(f.getModifiers())))
-            throw new IllegalComponentException();
-        if (injectMethods.stream().anyMatch(method -> method.getTypeParameters().length != 0))
-            throw new IllegalComponentException();
+        this(component, false);
+    }
+
+    public InjectionProvider(Class<T> component, boolean factory) {
+        this(INJECTIONS.get(component), factory);
+    }
+
+    InjectionProvider(Injection injection, boolean factory) {
+        this.injectConstructor = (Constructor<T>) injection.constructor();
+        this.injectFields = injection.fields();
+        this.injectMethods = injection.methods();
+        this.constructorRefs = injection.constructorRefs();
+        this.fieldRefs = injection.fieldRefs();
+        this.methodRefs = injection.methodRefs();
+        this.dependencies = injection.dependencies();
+        this.eagerDependencies = injection.eagerDependencies();
+        this.injector = factory ? factory(injectConstructor, injectFields, injectMethods) : reflection(injectConstructor, injectFields, injectMethods);
     }
 
     @Override
     public T get(Context context) {
-        try {
-            T instance = injectConstructor.newInstance(toDependencies(context, injectConstructor));
-            for (Field field : injectFields) {
-                field.set(instance, toDependency(context, field));
+        return link(type -> current -> current.get(type).get()).get(context);
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<T> link(ContextConfig.Linker linker) {
+        return new Linked(link(linker, constructorRefs),
+                link(linker, fieldRefs),
+                stream(methodRefs).map(refs -> link(linker, refs)).toArray(ContextConfig.ComponentProvider<?>[][]::new),
+                Instrumentation.of(linker));
+    }
+
+    private class Linked implements ContextConfig.ComponentProvider<T> {
+        private final ContextConfig.ComponentProvider<?>[] constructorDependencies;
+        private final ContextConfig.ComponentProvider<?>[] fieldDependencies;
+        private final ContextConfig.ComponentProvider<?>[][] methodDependencies;
+        private final Instrumentation instrumentation;
+
+        Linked(ContextConfig.ComponentProvider<?>[] constructorDependencies, ContextConfig.ComponentProvider<?>[] fieldDependencies,
+               ContextConfig.ComponentProvider<?>[][] methodDependencies, Instrumentation instrumentation) {
+            this.constructorDependencies = constructorDependencies;
+            this.fieldDependencies = fieldDependencies;
+            this.methodDependencies = methodDependencies;
+            this.instrumentation = instrumentation;
+        }
+
+        @Override
+        public T get(Context context) {
+            if (instrumentation != null) return record(context);
+            try {
+                T instance = injector.construct(resolve(context, constructorDependencies));
+                injector.inject(instance, resolve(context, fieldDependencies));
+                injector.invoke(instance, resolve(context, methodDependencies));
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        // every dependency is requested up front, so siblings are built concurrently and the instance
+        // is assembled once the slowest of them completes
+        @Override
+        public CompletableFuture<T> getAsync(Context context, Executor executor) {
+            ResolutionEvent event = instrumentation == null ? null : instrumentation.begin();
+            long start = System.nanoTime();
+            CompletableFuture<?>[] all = new CompletableFuture<?>[methodDependencies.length + 2];
+            CompletableFuture<Object[]> constructor = resolveAsync(context, constructorDependencies, executor);
+            CompletableFuture<Object[]> fields = resolveAsync(context, fieldDependencies, executor);
+            CompletableFuture<?>[] methods = new CompletableFuture<?>[methodDependencies.length];
+            for (int i = 0; i < methods.length; i++) all[i] = methods[i] = resolveAsync(context, methodDependencies[i], executor);
+            all[methods.length] = constructor;
+            all[methods.length + 1] = fields;
+            return CompletableFuture.allOf(all).thenApplyAsync(ignored -> assemble(constructor.join(), fields.join(), methods, event, start), executor);
+        }
+
+        private T assemble(Object[] arguments, Object[] fields, CompletableFuture<?>[] methods, ResolutionEvent event, long start) {
+            try {
+                long constructing = System.nanoTime();
+                T instance = injector.construct(arguments);
+                long constructor = System.nanoTime() - constructing;
+                long injecting = System.nanoTime();
+                injector.inject(instance, fields);
+                long field = System.nanoTime() - injecting;
+                Object[][] dependencies = new Object[methods.length][];
+                for (int i = 0; i < methods.length; i++) {
+                    dependencies[i] = (Object[]) methods[i].join();
+                }
+                long invoking = System.nanoTime();
+                injector.invoke(instance, dependencies);
+                long method = System.nanoTime() - invoking;
+                if (instrumentation != null)
+                    instrumentation.end(event, injectConstructor.getDeclaringClass(), constructor, field, method, System.nanoTime() - start);
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
             }
-            for (Method method : injectMethods) {
-                method.invoke(instance, toDependencies(context, method));
+        }
+
+        private T record(Context context) {
+            try {
+                ResolutionEvent event = instrumentation.begin();
+                long start = System.nanoTime();
+                Object[] arguments = resolve(context, constructorDependencies);
+                long constructing = System.nanoTime();
+                T instance = injector.construct(arguments);
+                long constructor = System.nanoTime() - constructing;
+                Object[] fields = resolve(context, fieldDependencies);
+                long injecting = System.nanoTime();
+                injector.inject(instance, fields);
+                long field = System.nanoTime() - injecting;
+                Object[][] methods = resolve(context, methodDependencies);
+                long invoking = System.nanoTime();
+                injector.invoke(instance, methods);
+                long method = System.nanoTime() - invoking;
+                instrumentation.end(event, injectConstructor.getDeclaringClass(), constructor, field, method, System.nanoTime() - start);
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
             }
-            return instance;
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
         }
+
+        @Override
+        public List<Class<?>> getDependencies() {
+            return InjectionProvider.this.getDependencies();
+        }
+
+        @Override
+        public List<Class<?>> getEagerDependencies() {
+            return InjectionProvider.this.getEagerDependencies();
+        }
+    }
+
+    record ComponentRef(Class<?> component, boolean provider) {
+        static ComponentRef of(Type type) {
+            if (type == Provider.class) throw new IllegalComponentException();
+            if (type instanceof ParameterizedType parameterized) {
+                Type[] arguments = parameterized.getActualTypeArguments();
+                if (parameterized.getRawType() == Provider.class) {
+                    ComponentRef provided = of(arguments[0]);
+                    if (provided.provider()) throw new IllegalComponentException();
+                    return new ComponentRef(provided.component(), true);
+                }
+                if (parameterized.getRawType() == Set.class && arguments[0] instanceof Class<?> element)
+                    return new ComponentRef(Multibinding.set(element), false);
+                if (parameterized.getRawType() == Map.class && arguments[0] == String.class && arguments[1] instanceof Class<?> element)
+                    return new ComponentRef(Multibinding.map(element), false);
+            }
+            // every other injection point is looked up by its erasure, as getType() would give it
+            return new ComponentRef(erase(type), false);
+        }
+
+        private static Class<?> erase(Type type) {
+            if (type instanceof Class<?> component) return component;
+            if (type instanceof ParameterizedType parameterized) return erase(parameterized.getRawType());
+            if (type instanceof TypeVariable<?> variable) return erase(variable.getBounds()[0]);
+            if (type instanceof GenericArrayType array) return erase(array.getGenericComponentType()).arrayType();
+            throw new IllegalComponentException();
+        }
+    }
+
+    private static ComponentRef[] toRefs(Executable executable) {
+        return stream(executable.getParameters()).map(parameter -> ComponentRef.of(parameter.getParameterizedType())).toArray(ComponentRef[]::new);
+    }
+
+    static ContextConfig.ComponentProvider<?>[] link(ContextConfig.Linker linker, ComponentRef[] refs) {
+        ContextConfig.ComponentProvider<?>[] providers = new ContextConfig.ComponentProvider<?>[refs.length];
+        for (int i = 0; i < refs.length; i++) {
+            Class<?> component = refs[i].component();
+            providers[i] = refs[i].provider()
+                    ? context -> (Provider<Object>) () -> FrozenContext.current(context).get(component).get()
+                    : linker.get(component);
+        }
+        return providers;
+    }
+
+    static Object[] resolve(Context context, ContextConfig.ComponentProvider<?>[] providers) {
+        Object[] dependencies = new Object[providers.length];
+        for (int i = 0; i < providers.length; i++) {
+            dependencies[i] = providers[i].get(context);
+        }
+        return dependencies;
+    }
+
+    static Object[][] resolve(Context context, ContextConfig.ComponentProvider<?>[][] providers) {
+        Object[][] dependencies = new Object[providers.length][];
+        for (int i = 0; i < providers.length; i++) {
+            dependencies[i] = resolve(context, providers[i]);
+        }
+        return dependencies;
+    }
+
+    static CompletableFuture<Object[]> resolveAsync(Context context, ContextConfig.ComponentProvider<?>[] providers, Executor executor) {
+        CompletableFuture<?>[] dependencies = new CompletableFuture<?>[providers.length];
+        for (int i = 0; i < providers.length; i++) {
+            dependencies[i] = providers[i].getAsync(context, executor);
+        }
+        return CompletableFuture.allOf(dependencies).thenApply(ignored -> {
+            Object[] resolved = new Object[dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                resolved[i] = dependencies[i].join();
+            }
+            return resolved;
+        });
+    }
+
+    boolean isFactory() {
+        return injector instanceof GeneratedInjector;
+    }
+
+    Injector<T> injector() {
+        return injector;
+    }
+
+    // every dependency of a kind is resolved before any of them is injected
+    interface Injector<T> {
+        T construct(Object[] dependencies) throws ReflectiveOperationException;
+
+        void inject(Object instance, Object[] fields) throws ReflectiveOperationException;
+
+        void invoke(Object instance, Object[][] methods) throws ReflectiveOperationException;
+    }
+
+    private static <T> Injector<T> reflection(Constructor<T> constructor, List<Field> fields, List<Method> methods) {
+        return new Injector<>() {
+            @Override
+            public T construct(Object[] dependencies) throws ReflectiveOperationException {
+                return constructor.newInstance(dependencies);
+            }
+
+            @Override
+            public void inject(Object instance, Object[] dependencies) throws ReflectiveOperationException {
+                for (int i = 0; i < dependencies.length; i++) {
+                    fields.get(i).set(instance, dependencies[i]);
+                }
+            }
+
+            @Override
+            public void invoke(Object instance, Object[][] dependencies) throws ReflectiveOperationException {
+                for (int i = 0; i < dependencies.length; i++) {
+                    methods.get(i).invoke(instance, dependencies[i]);
+                }
+            }
+        };
+    }
+
+    private static <T> Injector<T> factory(Constructor<T> constructor, List<Field> fields, List<Method> methods) {
+        List<Member> members = new ArrayList<>();
+        members.add(constructor);
+        members.addAll(fields);
+        members.addAll(methods);
+        return INJECTORS.get(constructor.getDeclaringClass())
+                .computeIfAbsent(members, key -> InjectorClassWriter.define(constructor, fields, methods))
+                .map(injector -> (Injector<T>) (Injector<?>) injector)
+                .orElseGet(() -> reflection(constructor, fields, methods));
     }
 
     @Override
     public List<Class<?>> getDependencies() {
-        return concat(concat(
-                        stream(injectConstructor.getParameterTypes()),
-                        injectFields.stream().map(v -> v.getType())),
-                injectMethods.stream().flatMap(method -> stream(method.getParameterTypes()))
-        ).collect(Collectors.toList());
+        return dependencies;
+    }
+
+    @Override
+    public List<Class<?>> getEagerDependencies() {
+        return eagerDependencies;
+    }
+
+    static Injection injection(Class<?> component) {
+        return INJECTIONS.get(component);
+    }
+
+    record Injection(Constructor<?> constructor, List<Field> fields, List<Method> methods,
+                     ComponentRef[] constructorRefs, ComponentRef[] fieldRefs, ComponentRef[][] methodRefs,
+                     List<Class<?>> dependencies, List<Class<?>> eagerDependencies) {
+        static Injection of(Class<?> component) {
+            if (Modifier.isAbstract(component.getModifiers())) throw new IllegalComponentException();
+            Constructor<?> constructor = getInjectConstructor(component);
+            List<Field> fields = getInjectFields(component);
+            List<Method> methods = getInjectMethods(component);
+            if (fields.stream().anyMatch(f -> Modifier.isFinal(f.getModifiers())))
+                throw new IllegalComponentException();
+            if (methods.stream().anyMatch(method -> method.getTypeParameters().length != 0))
+                throw new IllegalComponentException();
+            return of(constructor, fields, methods);
+        }
+
+        static Injection of(Constructor<?> constructor, List<Field> fields, List<Method> methods) {
+            ComponentRef[] constructorRefs = toRefs(constructor);
+            ComponentRef[] fieldRefs = fields.stream().map(field -> ComponentRef.of(field.getGenericType())).toArray(ComponentRef[]::new);
+            ComponentRef[][] methodRefs = methods.stream().map(InjectionProvider::toRefs).toArray(ComponentRef[][]::new);
+            List<ComponentRef> refs = concat(concat(stream(constructorRefs), stream(fieldRefs)), stream(methodRefs).flatMap(Arrays::stream)).toList();
+            return new Injection(constructor, fields, methods, constructorRefs, fieldRefs, methodRefs,
+                    refs.stream().map(ComponentRef::component).collect(Collectors.toUnmodifiableList()),
+                    refs.stream().filter(ref -> !ref.provider()).map(ComponentRef::component).collect(Collectors.toUnmodifiableList()));
+        }
     }
 
     private static <T> List<Method> getInjectMethods(Class<T> component) {
@@ -96,14 +384,6 @@ class InjectionProvider<T> implements ContextConfig.ComponentProvider<T> {
         return injectMethods.stream().noneMatch(o -> isOverride(m, o));
     }
 
-    private static Object[] toDependencies(Context context, Executable executable) {
-        return stream(executable.getParameterTypes()).map(t -> context.get(t).get()).toArray(Object[]::new);
-    }
-
-    private static Object toDependency(Context context, Field field) {
-        return context.get(field.getType()).get();
-    }
-
     private static <T> List<T> traverse(Class<?> component, BiFunction<List<T>, Class<?>, List<T>> finder) {
         List<T> members = new ArrayList<>();
         Class<?> current = component;
@@ -0,0 +1,156 @@
+package org.abbet.di;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Writes a hidden nestmate of the component extending GeneratedInjector, whose methods call the
+// inject constructor, fields and methods directly:
+//   create:      return new Component((A) dependencies[0], ...)
+//   setFields:   ((Declaring) instance).field = (F) dependencies[i]; ...
+//   callMethods: ((Declaring) instance).method((A) dependencies[i][0], ...); ...
+// Access is only checked when an instruction first runs, so components with a member or type the
+// nestmate couldn't reach, or with primitive or static injection points, are left to reflection.
+class InjectorClassWriter {
+    private static final String SUPER = ClassFile.internalName(GeneratedInjector.class);
+
+    static Optional<GeneratedInjector> define(Constructor<?> constructor, List<Field> fields, List<Method> methods) {
+        Class<?> component = constructor.getDeclaringClass();
+        if (!supported(component, constructor, constructor.getParameterTypes())) return Optional.empty();
+        for (Field field : fields)
+            if (!supported(component, field, field.getType())) return Optional.empty();
+        for (Method method : methods)
+            if (!supported(component, method, method.getParameterTypes())) return Optional.empty();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(component, MethodHandles.lookup());
+            Class<?> injector = lookup.defineHiddenClass(write(constructor, fields, methods), true, MethodHandles.Lookup.ClassOption.NESTMATE).lookupClass();
+            return Optional.of((GeneratedInjector) injector.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError | IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    static byte[] write(Constructor<?> constructor, List<Field> fields, List<Method> methods) throws IOException {
+        ClassFile file = new ClassFile();
+        String component = ClassFile.internalName(constructor.getDeclaringClass());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+        body.writeByte(0x2a); // aload_0
+        body.writeByte(0xb7); // invokespecial
+        body.writeShort(file.memberRef(10, SUPER, "<init>", "()V"));
+        body.writeByte(0xb1); // return
+        file.method("<init>", "()V", 1, 1, bytes.toByteArray());
+
+        bytes = new ByteArrayOutputStream();
+        body = new DataOutputStream(bytes);
+        body.writeByte(0xbb); // new
+        body.writeShort(file.classRef(component));
+        body.writeByte(0x59); // dup
+        Class<?>[] parameters = constructor.getParameterTypes();
+        for (int i = 0; i < parameters.length; i++) {
+            body.writeByte(0x2b); // aload_1
+            element(file, body, i, parameters[i]);
+        }
+        body.writeByte(0xb7); // invokespecial
+        body.writeShort(file.memberRef(10, component, "<init>", MethodType.methodType(void.class, parameters).toMethodDescriptorString()));
+        body.writeByte(0xb0); // areturn
+        file.method("create", "([Ljava/lang/Object;)Ljava/lang/Object;", parameters.length + 4, 2, bytes.toByteArray());
+
+        bytes = new ByteArrayOutputStream();
+        body = new DataOutputStream(bytes);
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            String declaring = ClassFile.internalName(field.getDeclaringClass());
+            body.writeByte(0x2b); // aload_1
+            body.writeByte(0xc0); // checkcast
+            body.writeShort(file.classRef(declaring));
+            body.writeByte(0x2c); // aload_2
+            element(file, body, i, field.getType());
+            body.writeByte(0xb5); // putfield
+            body.writeShort(file.memberRef(9, declaring, field.getName(), field.getType().descriptorString()));
+        }
+        body.writeByte(0xb1); // return
+        file.method("setFields", "(Ljava/lang/Object;[Ljava/lang/Object;)V", 4, 3, bytes.toByteArray());
+
+        bytes = new ByteArrayOutputStream();
+        body = new DataOutputStream(bytes);
+        int maxStack = 1;
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            String declaring = ClassFile.internalName(method.getDeclaringClass());
+            body.writeByte(0x2b); // aload_1
+            body.writeByte(0xc0); // checkcast
+            body.writeShort(file.classRef(declaring));
+            parameters = method.getParameterTypes();
+            for (int j = 0; j < parameters.length; j++) {
+                body.writeByte(0x2c); // aload_2
+                push(body, i);
+                body.writeByte(0x32); // aaload
+                element(file, body, j, parameters[j]);
+            }
+            body.writeByte(0xb6); // invokevirtual
+            body.writeShort(file.memberRef(10, declaring, method.getName(),
+                    MethodType.methodType(method.getReturnType(), parameters).toMethodDescriptorString()));
+            if (method.getReturnType() == long.class || method.getReturnType() == double.class) body.writeByte(0x58); // pop2
+            else if (method.getReturnType() != void.class) body.writeByte(0x57); // pop
+            maxStack = Math.max(maxStack, parameters.length + 4);
+        }
+        body.writeByte(0xb1); // return
+        file.method("callMethods", "(Ljava/lang/Object;[[Ljava/lang/Object;)V", maxStack, 3, bytes.toByteArray());
+
+        return file.toByteArray(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER, component + "$$Injector", SUPER);
+    }
+
+    // with the array on the stack, loads array[index] as the given type
+    private static void element(ClassFile file, DataOutputStream body, int index, Class<?> type) throws IOException {
+        push(body, index);
+        body.writeByte(0x32); // aaload
+        if (type == Object.class) return;
+        body.writeByte(0xc0); // checkcast
+        body.writeShort(file.classRef(type.isArray() ? type.descriptorString() : ClassFile.internalName(type)));
+    }
+
+    private static void push(DataOutputStream body, int value) throws IOException {
+        if (value <= 5) {
+            body.writeByte(0x03 + value); // iconst_<n>
+        } else if (value <= Byte.MAX_VALUE) {
+            body.writeByte(0x10); // bipush
+            body.writeByte(value);
+        } else {
+            body.writeByte(0x11); // sipush
+            body.writeShort(value);
+        }
+    }
+
+    private static boolean supported(Class<?> component, Member member, Class<?>... types) {
+        if (Modifier.isStatic(member.getModifiers()) || !accessible(component, member)) return false;
+        return Stream.of(types).noneMatch(Class::isPrimitive) && Stream.of(types).allMatch(type -> accessible(component, type));
+    }
+
+    private static boolean accessible(Class<?> component, Member member) {
+        Class<?> declaring = member.getDeclaringClass();
+        if (!accessible(component, declaring)) return false;
+        if (Modifier.isPrivate(member.getModifiers())) return declaring.getNestHost() == component.getNestHost();
+        return Modifier.isPublic(member.getModifiers()) || samePackage(component, declaring);
+    }
+
+    // a nested class is public in its class file if it was declared public or protected
+    private static boolean accessible(Class<?> component, Class<?> type) {
+        while (type.isArray()) type = type.getComponentType();
+        if (type.isPrimitive()) return true;
+        if (Modifier.isPublic(type.getModifiers()) || Modifier.isProtected(type.getModifiers()))
+            return component.getModule().canRead(type.getModule()) && type.getModule().isExported(type.getPackageName(), component.getModule());
+        return samePackage(component, type);
+    }
+
+    private static boolean samePackage(Class<?> component, Class<?> type) {
+        return component.getPackageName().equals(type.getPackageName()) && component.getClassLoader() == type.getClassLoader();
+    }
+}
@@ -0,0 +1,22 @@
+package org.abbet.di;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+class InstanceProvider<T> implements ContextConfig.ComponentProvider<T> {
+    private final T instance;
+
+    InstanceProvider(T instance) {
+        this.instance = instance;
+    }
+
+    @Override
+    public T get(Context context) {
+        return instance;
+    }
+
+    @Override
+    public CompletableFuture<T> getAsync(Context context, Executor executor) {
+        return CompletableFuture.completedFuture(instance);
+    }
+}
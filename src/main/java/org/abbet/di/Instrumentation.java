@@ -0,0 +1,35 @@
+package org.abbet.di;
+
+final class Instrumentation {
+    private final Class<?> component;
+    private final ResolutionListener listener;
+
+    private Instrumentation(Class<?> component, ResolutionListener listener) {
+        this.component = component;
+        this.listener = listener;
+    }
+
+    static Instrumentation of(ContextConfig.Linker linker) {
+        ResolutionListener listener = linker.listener();
+        return listener == null ? null : new Instrumentation(linker.component(), listener);
+    }
+
+    ResolutionEvent begin() {
+        ResolutionEvent event = new ResolutionEvent();
+        event.begin();
+        return event;
+    }
+
+    void end(ResolutionEvent event, Class<?> implementation, long constructor, long field, long method, long total) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.component = component;
+            event.implementation = implementation;
+            event.constructorTime = constructor;
+            event.fieldTime = field;
+            event.methodTime = method;
+            event.commit();
+        }
+        listener.resolved(new Resolution(component, implementation, constructor, field, method, total));
+    }
+}
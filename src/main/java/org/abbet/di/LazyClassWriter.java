@@ -0,0 +1,95 @@
+package org.abbet.di;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+// Writes a hidden class extending LazyProxy and implementing the bound interface, each method of
+// which is `return ((Type) target()).method(arguments)`.
+class LazyClassWriter {
+    private static final String SUPER = ClassFile.internalName(LazyProxy.class);
+
+    static Optional<MethodHandle> define(Class<?> type) {
+        if (!type.isInterface()) return Optional.empty();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            Class<?> proxy = lookup.defineHiddenClass(write(type), true).lookupClass();
+            return Optional.of(lookup.findConstructor(proxy, methodType(void.class, Supplier.class))
+                    .asType(methodType(Object.class, Supplier.class)));
+        } catch (ReflectiveOperationException | LinkageError | IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    static byte[] write(Class<?> type) throws IOException {
+        ClassFile file = new ClassFile();
+        String owner = ClassFile.internalName(type);
+        int interfaceClass = file.classRef(owner);
+
+        ByteArrayOutputStream constructor = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(constructor);
+        body.writeByte(0x2a); // aload_0
+        body.writeByte(0x2b); // aload_1
+        body.writeByte(0xb7); // invokespecial
+        body.writeShort(file.memberRef(10, SUPER, "<init>", "(Ljava/util/function/Supplier;)V"));
+        body.writeByte(0xb1); // return
+        file.method("<init>", "(Ljava/util/function/Supplier;)V", 2, 2, constructor.toByteArray());
+
+        int target = file.memberRef(10, SUPER, "target", "()Ljava/lang/Object;");
+        Set<String> written = new HashSet<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) continue;
+            String descriptor = MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+            if (!written.add(method.getName() + descriptor)) continue;
+
+            ByteArrayOutputStream delegate = new ByteArrayOutputStream();
+            body = new DataOutputStream(delegate);
+            body.writeByte(0x2a); // aload_0
+            body.writeByte(0xb6); // invokevirtual
+            body.writeShort(target);
+            body.writeByte(0xc0); // checkcast
+            body.writeShort(interfaceClass);
+            int slot = 1;
+            for (Class<?> parameter : method.getParameterTypes()) {
+                if (slot > 0xff) throw new IllegalArgumentException();
+                body.writeByte(load(parameter));
+                body.writeByte(slot);
+                slot += parameter == long.class || parameter == double.class ? 2 : 1;
+            }
+            int arguments = slot - 1;
+            body.writeByte(0xb9); // invokeinterface
+            body.writeShort(file.memberRef(11, owner, method.getName(), descriptor));
+            body.writeByte(arguments + 1);
+            body.writeByte(0);
+            body.writeByte(ret(method.getReturnType()));
+            file.method(method.getName(), descriptor, Math.max(arguments + 1, 2), slot, delegate.toByteArray());
+        }
+        return file.toByteArray(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER, owner + "$$Lazy", SUPER, owner);
+    }
+
+    private static int load(Class<?> type) {
+        if (!type.isPrimitive()) return 0x19; // aload
+        if (type == long.class) return 0x16; // lload
+        if (type == float.class) return 0x17; // fload
+        if (type == double.class) return 0x18; // dload
+        return 0x15; // iload
+    }
+
+    private static int ret(Class<?> type) {
+        if (type == void.class) return 0xb1; // return
+        if (!type.isPrimitive()) return 0xb0; // areturn
+        if (type == long.class) return 0xad; // lreturn
+        if (type == float.class) return 0xae; // freturn
+        if (type == double.class) return 0xaf; // dreturn
+        return 0xac; // ireturn
+    }
+}
@@ -0,0 +1,63 @@
+package org.abbet.di;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+class LazyProvider<T> implements ContextConfig.ComponentProvider<T> {
+    private static final ClassValue<Optional<MethodHandle>> PROXIES = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            return LazyClassWriter.define(type);
+        }
+    };
+
+    private final ContextConfig.ComponentProvider<T> provider;
+    private final MethodHandle proxy;
+
+    LazyProvider(Class<?> type, ContextConfig.ComponentProvider<T> provider) {
+        this(provider, PROXIES.get(type).orElse(null));
+    }
+
+    private LazyProvider(ContextConfig.ComponentProvider<T> provider, MethodHandle proxy) {
+        this.provider = provider;
+        this.proxy = proxy;
+    }
+
+    @Override
+    public T get(Context context) {
+        if (proxy == null) return provider.get(context);
+        Supplier<T> target = () -> provider.get(context);
+        try {
+            return (T) (Object) proxy.invokeExact(target);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<T> getAsync(Context context, Executor executor) {
+        if (proxy == null) return provider.getAsync(context, executor);
+        return CompletableFuture.completedFuture(get(context));
+    }
+
+    @Override
+    public List<Class<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    // the target is built on its first call rather than when injected, so like a Provider
+    // edge a lazy binding cannot close a cycle
+    @Override
+    public List<Class<?>> getEagerDependencies() {
+        return proxy == null ? provider.getEagerDependencies() : List.of();
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<T> link(ContextConfig.Linker linker) {
+        return new LazyProvider<>(provider.link(linker), proxy);
+    }
+}
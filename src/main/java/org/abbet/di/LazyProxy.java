@@ -0,0 +1,24 @@
+package org.abbet.di;
+
+import java.util.function.Supplier;
+
+public abstract class LazyProxy {
+    private Supplier<?> factory;
+    private volatile Object target;
+
+    protected LazyProxy(Supplier<?> factory) {
+        this.factory = factory;
+    }
+
+    public final Object target() {
+        Object result = target;
+        if (result != null) return result;
+        synchronized (this) {
+            if (target == null) {
+                target = factory.get();
+                factory = null;
+            }
+            return target;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.abbet.di;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Multibindings are bound under keys of their own, hidden classes named after the collection type,
+// so they can't collide with or be looked up as an ordinary binding. Names, order and the linked
+// contributions are fixed when the context is built; each injection collects the contributions
+// into an immutable collection in contribution order, so every contribution keeps its own scope.
+class Multibinding implements ContextConfig.ComponentProvider<Object> {
+    private static final ClassValue<Class<?>> SETS = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> element) {
+            return key("Set<" + element.getTypeName() + ">");
+        }
+    };
+    private static final ClassValue<Class<?>> MAPS = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> element) {
+            return key("Map<String," + element.getTypeName() + ">");
+        }
+    };
+
+    private final boolean named;
+    // Every version of a multibinding appends to the same arrays and only reads its first size
+    // slots, so contexts keep the contributions they were created with while adding one costs
+    // amortized constant time. Only the latest version is added to.
+    private final Set<String> taken;
+    private final String[] names;
+    private final ContextConfig.ComponentProvider<?>[] contributions;
+    private final int size;
+
+    Multibinding(boolean named) {
+        this(named, new HashSet<>(), new String[4], new ContextConfig.ComponentProvider<?>[4], 0);
+    }
+
+    private Multibinding(boolean named, Set<String> taken, String[] names, ContextConfig.ComponentProvider<?>[] contributions, int size) {
+        this.named = named;
+        this.taken = taken;
+        this.names = names;
+        this.contributions = contributions;
+        this.size = size;
+    }
+
+    static Class<?> set(Class<?> element) {
+        return SETS.get(element);
+    }
+
+    static Class<?> map(Class<?> element) {
+        return MAPS.get(element);
+    }
+
+    // Bindings, plan ids, dependency lists and DependencyNotFoundException are all keyed by Class, so
+    // a multibinding needs a Class no ordinary binding can be: a hidden class can't be named, loaded
+    // or implemented by anyone else. One is defined per element type and collection kind, and the
+    // ClassValue keeps it only as long as the element type itself. It is a final class without
+    // constructors, in this package since hidden classes join the lookup's. The name only shows up
+    // in messages; it is spelled with type names, whose dots and array brackets a class name can't hold.
+    private static Class<?> key(String name) {
+        try {
+            byte[] bytes = new ClassFile().toByteArray(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER,
+                    Multibinding.class.getPackageName().replace('.', '/') + "/" + name.replace('.', '$').replace("[]", "$Array"), "java/lang/Object");
+            return MethodHandles.lookup().defineHiddenClass(bytes, false).lookupClass();
+        } catch (IOException | IllegalAccessException | LinkageError e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Multibinding add(String name, ContextConfig.ComponentProvider<?> contribution) {
+        if (named && !taken.add(name)) throw new IllegalComponentException();
+        String[] names = this.names;
+        ContextConfig.ComponentProvider<?>[] contributions = this.contributions;
+        if (size == contributions.length) {
+            names = Arrays.copyOf(names, size * 2);
+            contributions = Arrays.copyOf(contributions, size * 2);
+        }
+        names[size] = name;
+        contributions[size] = contribution;
+        return new Multibinding(named, taken, names, contributions, size + 1);
+    }
+
+    @Override
+    public Object get(Context context) {
+        return link(type -> current -> current.get(type).get()).get(context);
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<Object> link(ContextConfig.Linker linker) {
+        return new Linked(contributions().map(contribution -> contribution.link(linker)).toArray(ContextConfig.ComponentProvider<?>[]::new));
+    }
+
+    @Override
+    public List<Class<?>> getDependencies() {
+        return contributions().flatMap(contribution -> contribution.getDependencies().stream()).distinct().toList();
+    }
+
+    @Override
+    public List<Class<?>> getEagerDependencies() {
+        return contributions().flatMap(contribution -> contribution.getEagerDependencies().stream()).distinct().toList();
+    }
+
+    boolean anyContribution(Predicate<ContextConfig.ComponentProvider<?>> test) {
+        return contributions().anyMatch(test);
+    }
+
+    private Stream<ContextConfig.ComponentProvider<?>> contributions() {
+        return Arrays.stream(contributions, 0, size);
+    }
+
+    private static boolean fixed(ContextConfig.ComponentProvider<?> contribution) {
+        return contribution instanceof InstanceProvider<?> || contribution instanceof SingletonProvider<?>;
+    }
+
+    private class Linked implements ContextConfig.ComponentProvider<Object> {
+        private final String[] names;
+        private final ContextConfig.ComponentProvider<?>[] contributions;
+        private final boolean fixed;
+        private volatile Object collection;
+
+        Linked(ContextConfig.ComponentProvider<?>[] contributions) {
+            this.names = Arrays.copyOf(Multibinding.this.names, contributions.length);
+            this.contributions = contributions;
+            this.fixed = Arrays.stream(contributions).allMatch(Multibinding::fixed);
+        }
+
+        // only a collection of instances and singletons is the same on every call, so only that is kept
+        @Override
+        public Object get(Context context) {
+            if (!fixed) return collect(InjectionProvider.resolve(context, contributions));
+            Object result = collection;
+            if (result != null) return result;
+            synchronized (this) {
+                if (collection == null) collection = collect(InjectionProvider.resolve(context, contributions));
+                return collection;
+            }
+        }
+
+        @Override
+        public CompletableFuture<Object> getAsync(Context context, Executor executor) {
+            Object result = collection;
+            if (result != null) return CompletableFuture.completedFuture(result);
+            return InjectionProvider.resolveAsync(context, contributions, executor).thenApply(instances -> {
+                if (!fixed) return collect(instances);
+                synchronized (this) {
+                    if (collection == null) collection = collect(instances);
+                    return collection;
+                }
+            });
+        }
+
+        private Object collect(Object[] instances) {
+            if (named) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < instances.length; i++) map.put(names[i], instances[i]);
+                return Collections.unmodifiableMap(map);
+            }
+            return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(instances)));
+        }
+
+        @Override
+        public List<Class<?>> getDependencies() {
+            return Multibinding.this.getDependencies();
+        }
+
+        @Override
+        public List<Class<?>> getEagerDependencies() {
+            return Multibinding.this.getEagerDependencies();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.abbet.di;
+
+public interface ObjectPool<T> {
+    Lease<T> borrow();
+
+    Metrics metrics();
+
+    interface Lease<T> extends AutoCloseable {
+        T get();
+
+        @Override
+        void close();
+    }
+
+    record Metrics(long hits, long misses, long evictions, int idle) {
+    }
+}
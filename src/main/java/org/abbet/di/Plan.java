@@ -0,0 +1,129 @@
+package org.abbet.di;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+// The bindings of a config as its contexts see them. A plan is only ever appended to, by the
+// getContext holding the config's lock: a rebound component gets a new id that points back to its
+// previous one, and a context keeps the size the plan had when it was created, so it goes on
+// reading the ids it was created with while later contexts share the same arrays. Creating a
+// context after one more binding thus costs one append, not a copy of every binding.
+class Plan {
+    // A single ClassValue gives every class a global number the first time any plan looks it up.
+    // Each plan maps the numbers of its own keys to their latest ids in an open-addressing table,
+    // so building plans and looking up keys adds nothing to the classes themselves.
+    private static final AtomicInteger NEXT = new AtomicInteger();
+    private static final ClassValue<Integer> NUMBERS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return NEXT.getAndIncrement();
+        }
+    };
+
+    // Readers never lock: a slot is written before the table entry naming it is released, and
+    // grown arrays are published through the volatile fields after the old slots are copied over.
+    private volatile Class<?>[] components = new Class<?>[16];
+    private volatile ContextConfig.ComponentProvider<?>[] bindings = new ContextConfig.ComponentProvider<?>[16];
+    // the id the component had before, or -1
+    private volatile int[] previous = new int[16];
+    // a slot holds its key's number plus one in the high half and the key's latest id in the low half
+    private volatile AtomicLongArray table = new AtomicLongArray(32);
+    private int keys;
+    private int size;
+    // the first id whose binding needs a resolution session; a rebound one still counts, which only
+    // opens sessions nothing uses until the plan is compacted
+    private int sessions = Integer.MAX_VALUE;
+
+    static Plan of(Collection<Class<?>> components, Function<Class<?>, ContextConfig.ComponentProvider<?>> bindings) {
+        Plan plan = new Plan();
+        for (Class<?> component : components) plan.append(component, bindings.apply(component));
+        return plan;
+    }
+
+    void append(Class<?> component, ContextConfig.ComponentProvider<?> binding) {
+        int id = size;
+        if (id == components.length) {
+            components = Arrays.copyOf(components, id * 2);
+            bindings = Arrays.copyOf(bindings, id * 2);
+            previous = Arrays.copyOf(previous, id * 2);
+        }
+        components[id] = component;
+        bindings[id] = binding;
+
+        int number = NUMBERS.get(component) + 1;
+        int slot = slot(table, number);
+        if (table.get(slot) == 0 && ++keys * 2 > table.length()) {
+            table = grow(table);
+            slot = slot(table, number);
+        }
+        long entry = table.get(slot);
+        previous[id] = entry == 0 ? -1 : (int) entry;
+        table.setRelease(slot, (long) number << 32 | id);
+
+        if (sessions == Integer.MAX_VALUE && FrozenContext.resolutionScoped(binding)) sessions = id;
+        size = id + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // the latest id of the type among the first size ids, or -1
+    int id(Class<?> type, int size) {
+        int number = NUMBERS.get(type) + 1;
+        AtomicLongArray table = this.table;
+        int mask = table.length() - 1;
+        for (int slot = hash(number, mask); ; slot = (slot + 1) & mask) {
+            long entry = table.getAcquire(slot);
+            if (entry == 0) return -1;
+            if ((int) (entry >>> 32) == number) {
+                int id = (int) entry;
+                if (id < size) return id;
+                int[] previous = this.previous;
+                while (id >= size) id = previous[id];
+                return id;
+            }
+        }
+    }
+
+    Class<?> component(int id) {
+        return components[id];
+    }
+
+    ContextConfig.ComponentProvider<?> binding(int id) {
+        return bindings[id];
+    }
+
+    ContextConfig.ComponentProvider<?> binding(Class<?> type) {
+        int id = id(type, size);
+        return id < 0 ? null : bindings[id];
+    }
+
+    boolean sessions(int size) {
+        return sessions < size;
+    }
+
+    private static int slot(AtomicLongArray table, int number) {
+        int mask = table.length() - 1;
+        int slot = hash(number, mask);
+        for (long entry = table.get(slot); entry != 0 && (int) (entry >>> 32) != number; entry = table.get(slot))
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private static AtomicLongArray grow(AtomicLongArray table) {
+        AtomicLongArray grown = new AtomicLongArray(table.length() * 2);
+        for (int i = 0; i < table.length(); i++) {
+            long entry = table.get(i);
+            if (entry != 0) grown.set(slot(grown, (int) (entry >>> 32)), entry);
+        }
+        return grown;
+    }
+
+    private static int hash(int number, int mask) {
+        return (number * 0x9E3779B9) & mask;
+    }
+}
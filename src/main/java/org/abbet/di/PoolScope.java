@@ -0,0 +1,130 @@
+package org.abbet.di;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Keeps up to maxSize idle instances per binding in a slot array. Borrowing and returning claim a
+// slot with a single compare-and-set, starting from a slot picked by the calling thread so threads
+// mostly stay out of each other's way. Instances idle longer than the timeout are dropped the next
+// time a borrow reaches them. Context.get takes an instance out of the pool for good; borrow it
+// through Context.pool to hand it back.
+public class PoolScope implements Scope {
+    private final int maxSize;
+    private final long idleNanos;
+
+    public PoolScope(int maxSize, Duration idleTimeout) {
+        if (maxSize < 1) throw new IllegalArgumentException("pool size must be positive");
+        this.maxSize = maxSize;
+        this.idleNanos = idleTimeout.toNanos();
+    }
+
+    @Override
+    public <T> ContextConfig.ComponentProvider<T> create(ContextConfig.ComponentProvider<T> provider) {
+        return new Pool<>(provider, maxSize, idleNanos);
+    }
+
+    static class Pool<T> implements ContextConfig.ComponentProvider<T> {
+        private final ContextConfig.ComponentProvider<T> provider;
+        private final AtomicReferenceArray<Idle<T>> slots;
+        private final long idleNanos;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        Pool(ContextConfig.ComponentProvider<T> provider, int maxSize, long idleNanos) {
+            this.provider = provider;
+            this.slots = new AtomicReferenceArray<>(maxSize);
+            this.idleNanos = idleNanos;
+        }
+
+        @Override
+        public T get(Context context) {
+            T instance = borrowIdle();
+            return instance != null ? instance : provider.get(context);
+        }
+
+        @Override
+        public CompletableFuture<T> getAsync(Context context, Executor executor) {
+            T instance = borrowIdle();
+            return instance != null ? CompletableFuture.completedFuture(instance) : provider.getAsync(context, executor);
+        }
+
+        private T borrowIdle() {
+            int start = stripe();
+            long now = System.nanoTime();
+            for (int i = 0; i < slots.length(); i++) {
+                int slot = (start + i) % slots.length();
+                Idle<T> idle = slots.get(slot);
+                if (idle == null || !slots.compareAndSet(slot, idle, null)) continue;
+                if (now - idle.since() >= idleNanos) {
+                    evictions.increment();
+                    continue;
+                }
+                hits.increment();
+                return idle.instance();
+            }
+            misses.increment();
+            return null;
+        }
+
+        void release(T instance) {
+            int start = stripe();
+            Idle<T> idle = new Idle<>(instance, System.nanoTime());
+            for (int i = 0; i < slots.length(); i++) {
+                int slot = (start + i) % slots.length();
+                if (slots.get(slot) == null && slots.compareAndSet(slot, null, idle)) return;
+            }
+        }
+
+        ObjectPool<T> in(Context context) {
+            return new ObjectPool<>() {
+                @Override
+                public Lease<T> borrow() {
+                    T instance = get(context);
+                    AtomicBoolean returned = new AtomicBoolean();
+                    return new Lease<>() {
+                        @Override
+                        public T get() {
+                            if (returned.get()) throw new IllegalStateException("lease already returned");
+                            return instance;
+                        }
+
+                        @Override
+                        public void close() {
+                            if (returned.compareAndSet(false, true)) release(instance);
+                        }
+                    };
+                }
+
+                @Override
+                public Metrics metrics() {
+                    int idle = 0;
+                    for (int i = 0; i < slots.length(); i++) if (slots.get(i) != null) idle++;
+                    return new Metrics(hits.sum(), misses.sum(), evictions.sum(), idle);
+                }
+            };
+        }
+
+        private int stripe() {
+            return (int) (Thread.currentThread().getId() % slots.length());
+        }
+
+        @Override
+        public List<Class<?>> getDependencies() {
+            return provider.getDependencies();
+        }
+
+        @Override
+        public List<Class<?>> getEagerDependencies() {
+            return provider.getEagerDependencies();
+        }
+    }
+
+    private record Idle<T>(T instance, long since) {
+    }
+}
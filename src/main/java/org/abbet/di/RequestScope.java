@@ -0,0 +1,63 @@
+package org.abbet.di;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+// Instances live in a map bound to the current thread only while within() runs, so nothing outlives
+// the unit of work. This stands in for ScopedValue, which is not available on the Java 17 toolchain.
+public class RequestScope implements Scope {
+    private final ThreadLocal<Map<Object, Object>> instances = new ThreadLocal<>();
+
+    @Override
+    public <T> ContextConfig.ComponentProvider<T> create(ContextConfig.ComponentProvider<T> provider) {
+        return new ContextConfig.ComponentProvider<>() {
+            @Override
+            public T get(Context context) {
+                Map<Object, Object> current = instances.get();
+                if (current == null) throw new IllegalStateException("no active request scope");
+                T instance = (T) current.get(this);
+                if (instance == null) {
+                    instance = provider.get(context);
+                    current.put(this, instance);
+                }
+                return instance;
+            }
+
+            // the scope is bound to the calling thread, so it has to be resolved there
+            @Override
+            public CompletableFuture<T> getAsync(Context context, Executor executor) {
+                try {
+                    return CompletableFuture.completedFuture(get(context));
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+
+            @Override
+            public List<Class<?>> getDependencies() {
+                return provider.getDependencies();
+            }
+
+            @Override
+            public List<Class<?>> getEagerDependencies() {
+                return provider.getEagerDependencies();
+            }
+        };
+    }
+
+    @Override
+    public <R> R within(Supplier<R> work) {
+        Map<Object, Object> previous = instances.get();
+        instances.set(new HashMap<>());
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) instances.remove();
+            else instances.set(previous);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package org.abbet.di;
+
+public record Resolution(Class<?> component, Class<?> implementation,
+                         long constructorNanos, long fieldNanos, long methodNanos, long totalNanos) {
+}
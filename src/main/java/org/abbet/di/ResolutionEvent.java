@@ -0,0 +1,27 @@
+package org.abbet.di;
+
+import jdk.jfr.*;
+
+@Name("org.abbet.di.Resolution")
+@Label("Component Resolution")
+@Category("Dependency Injection")
+@StackTrace(false)
+class ResolutionEvent extends Event {
+    @Label("Component")
+    Class<?> component;
+
+    @Label("Implementation")
+    Class<?> implementation;
+
+    @Label("Constructor Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long constructorTime;
+
+    @Label("Field Injection Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long fieldTime;
+
+    @Label("Method Injection Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long methodTime;
+}
@@ -0,0 +1,8 @@
+package org.abbet.di;
+
+public interface ResolutionListener {
+    void resolved(Resolution resolution);
+
+    default void created(ContextCreation creation) {
+    }
+}
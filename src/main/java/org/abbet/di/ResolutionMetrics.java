@@ -0,0 +1,49 @@
+package org.abbet.di;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ResolutionMetrics implements ResolutionListener {
+    private final Map<Class<?>, Recorder> recorders = new ConcurrentHashMap<>();
+
+    @Override
+    public void resolved(Resolution resolution) {
+        recorders.computeIfAbsent(resolution.component(), component -> new Recorder()).record(resolution);
+    }
+
+    public Optional<Snapshot> get(Class<?> component) {
+        return Optional.ofNullable(recorders.get(component)).map(Recorder::snapshot);
+    }
+
+    // histogram[i] counts resolutions whose total time was in [2^i, 2^(i+1)) nanoseconds
+    public record Snapshot(long count, long totalNanos, long constructorNanos, long fieldNanos, long methodNanos,
+                           long[] histogram) {
+    }
+
+    private static class Recorder {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAdder constructor = new LongAdder();
+        private final LongAdder field = new LongAdder();
+        private final LongAdder method = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(Long.SIZE);
+
+        void record(Resolution resolution) {
+            count.increment();
+            total.add(resolution.totalNanos());
+            constructor.add(resolution.constructorNanos());
+            field.add(resolution.fieldNanos());
+            method.add(resolution.methodNanos());
+            histogram.incrementAndGet(Long.SIZE - 1 - Long.numberOfLeadingZeros(Math.max(1, resolution.totalNanos())));
+        }
+
+        Snapshot snapshot() {
+            long[] buckets = new long[histogram.length()];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = histogram.get(i);
+            return new Snapshot(count.sum(), total.sum(), constructor.sum(), field.sum(), method.sum(), buckets);
+        }
+    }
+}
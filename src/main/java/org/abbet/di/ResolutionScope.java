@@ -0,0 +1,38 @@
+package org.abbet.di;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Instances are memoized in the session a top-level get or getAll opens, so a component reached
+// through several branches of one object graph is built once for that graph. The session travels
+// as the context handed down the resolution, so nothing is bound to the calling thread.
+public class ResolutionScope implements Scope {
+
+    @Override
+    public <T> ContextConfig.ComponentProvider<T> create(ContextConfig.ComponentProvider<T> provider) {
+        return new ContextConfig.ComponentProvider<>() {
+            @Override
+            public T get(Context context) {
+                if (context instanceof FrozenContext.Session session) return session.memoize(this, provider);
+                return provider.get(context);
+            }
+
+            @Override
+            public CompletableFuture<T> getAsync(Context context, Executor executor) {
+                if (context instanceof FrozenContext.Session session) return session.memoizeAsync(this, provider);
+                return provider.getAsync(context, executor);
+            }
+
+            @Override
+            public List<Class<?>> getDependencies() {
+                return provider.getDependencies();
+            }
+
+            @Override
+            public List<Class<?>> getEagerDependencies() {
+                return provider.getEagerDependencies();
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package org.abbet.di;
+
+import java.util.function.Supplier;
+
+public interface Scope {
+    <T> ContextConfig.ComponentProvider<T> create(ContextConfig.ComponentProvider<T> provider);
+
+    default <R> R within(Supplier<R> work) {
+        return work.get();
+    }
+}
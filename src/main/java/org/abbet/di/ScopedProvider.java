@@ -0,0 +1,46 @@
+package org.abbet.di;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+class ScopedProvider<T> implements ContextConfig.ComponentProvider<T> {
+    private final Scope scope;
+    private final ContextConfig.ComponentProvider<T> provider;
+    private final ContextConfig.ComponentProvider<T> scoped;
+
+    ScopedProvider(Scope scope, ContextConfig.ComponentProvider<T> provider) {
+        this.scope = scope;
+        this.provider = provider;
+        this.scoped = scope.create(provider);
+    }
+
+    Scope scope() {
+        return scope;
+    }
+
+    @Override
+    public T get(Context context) {
+        return scoped.get(context);
+    }
+
+    @Override
+    public CompletableFuture<T> getAsync(Context context, Executor executor) {
+        return scoped.getAsync(context, executor);
+    }
+
+    @Override
+    public List<Class<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public List<Class<?>> getEagerDependencies() {
+        return provider.getEagerDependencies();
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<T> link(ContextConfig.Linker linker) {
+        return scope.create(provider.link(linker));
+    }
+}
@@ -0,0 +1,64 @@
+package org.abbet.di;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+class SingletonProvider<T> implements ContextConfig.ComponentProvider<T> {
+    private final ContextConfig.ComponentProvider<T> provider;
+    private volatile T instance;
+    private CompletableFuture<T> pending;
+
+    SingletonProvider(ContextConfig.ComponentProvider<T> provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public T get(Context context) {
+        T result = instance;
+        if (result != null) return result;
+        CompletableFuture<T> waiting;
+        synchronized (this) {
+            if (instance != null) return instance;
+            if (pending == null) return instance = provider.get(context);
+            waiting = pending;
+        }
+        try {
+            return waiting.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    // concurrent callers share the construction in flight instead of starting another
+    @Override
+    public CompletableFuture<T> getAsync(Context context, Executor executor) {
+        T result = instance;
+        if (result != null) return CompletableFuture.completedFuture(result);
+        synchronized (this) {
+            if (instance != null) return CompletableFuture.completedFuture(instance);
+            if (pending != null) return pending;
+            CompletableFuture<T> created = provider.getAsync(context, executor);
+            pending = created;
+            created.whenComplete((value, failure) -> {
+                synchronized (this) {
+                    if (failure == null) instance = value;
+                    pending = null;
+                }
+            });
+            return created;
+        }
+    }
+
+    @Override
+    public List<Class<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public List<Class<?>> getEagerDependencies() {
+        return provider.getEagerDependencies();
+    }
+}
@@ -0,0 +1,222 @@
+package org.abbet.di;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Binary layout: magic, version, classpath fingerprint, entry count, then one entry per component
+// in topological order: key, kind, implementation, eager dependencies and, for reflective injection,
+// the selected members.
+class Snapshot {
+    private static final int MAGIC = 0x44494753;
+    private static final short VERSION = 2;
+    private static final byte INSTANCE = 0;
+    private static final byte FACTORY = 1;
+    private static final byte INJECTION = 2;
+
+    record Member(String declaring, String name, List<String> parameters) {
+    }
+
+    record Entry(String component, String implementation, List<String> dependencies, List<String> constructor,
+                 List<Member> fields, List<Member> methods) {
+    }
+
+    private static Long fingerprint;
+
+    private final Map<String, Entry> entries;
+
+    private Snapshot(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    // The recorded graph was free of cycles and missing dependencies, so it still is as long as every
+    // component keeps its implementation and eager dependencies.
+    boolean matches(Map<Class<?>, ContextConfig.ComponentProvider<?>> providers, Map<Class<?>, Class<?>> implementations) {
+        if (providers.size() != entries.size()) return false;
+        for (Map.Entry<Class<?>, ContextConfig.ComponentProvider<?>> provider : providers.entrySet()) {
+            Entry entry = entries.get(provider.getKey().getName());
+            Class<?> implementation = implementations.get(provider.getKey());
+            if (entry == null || !entry.implementation().equals(implementation == null ? "" : implementation.getName())
+                    || !entry.dependencies().equals(names(provider.getValue().getEagerDependencies())))
+                return false;
+        }
+        return true;
+    }
+
+    InjectionProvider.Injection injection(Class<?> component, Class<?> implementation) {
+        Entry entry = entries.get(component.getName());
+        if (entry == null || entry.constructor() == null || !entry.implementation().equals(implementation.getName()))
+            return null;
+        try {
+            ClassLoader loader = implementation.getClassLoader();
+            Constructor<?> constructor = implementation.getDeclaredConstructor(types(entry.constructor(), loader));
+            List<Field> fields = new ArrayList<>();
+            for (Member field : entry.fields())
+                fields.add(Class.forName(field.declaring(), false, loader).getDeclaredField(field.name()));
+            List<Method> methods = new ArrayList<>();
+            for (Member method : entry.methods())
+                methods.add(Class.forName(method.declaring(), false, loader).getDeclaredMethod(method.name(), types(method.parameters(), loader)));
+            return InjectionProvider.Injection.of(constructor, fields, methods);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Class<?>[] types(List<String> names, ClassLoader loader) throws ClassNotFoundException {
+        Class<?>[] types = new Class<?>[names.size()];
+        for (int i = 0; i < types.length; i++) types[i] = Class.forName(names.get(i), false, loader);
+        return types;
+    }
+
+    static Snapshot read(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION || buffer.getLong() != fingerprint()) return null;
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (int count = buffer.getInt(); count > 0; count--) {
+                String component = string(buffer);
+                byte kind = buffer.get();
+                String implementation = string(buffer);
+                List<String> dependencies = strings(buffer);
+                if (kind != INJECTION) entries.put(component, new Entry(component, implementation, dependencies, null, List.of(), List.of()));
+                else entries.put(component, new Entry(component, implementation, dependencies, strings(buffer), members(buffer), members(buffer)));
+            }
+            return new Snapshot(entries);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static List<Member> members(ByteBuffer buffer) {
+        List<Member> members = new ArrayList<>();
+        for (int count = buffer.getShort(); count > 0; count--)
+            members.add(new Member(string(buffer), string(buffer), strings(buffer)));
+        return members;
+    }
+
+    private static List<String> strings(ByteBuffer buffer) {
+        List<String> strings = new ArrayList<>();
+        for (int count = buffer.getShort(); count > 0; count--) strings.add(string(buffer));
+        return strings;
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // The snapshot only saves startup work, so failing to write it leaves the file as it was.
+    static void write(Path file, Collection<Class<?>> order, Map<Class<?>, List<Class<?>>> dependencies,
+                      Map<Class<?>, Class<?>> implementations) {
+        Path written = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(fingerprint());
+            out.writeInt(order.size());
+            for (Class<?> component : order) {
+                Class<?> implementation = implementations.get(component);
+                byte kind = implementation == null ? INSTANCE : FactoryProvider.of(implementation).isPresent() ? FACTORY : INJECTION;
+                string(out, component.getName());
+                out.writeByte(kind);
+                string(out, implementation == null ? "" : implementation.getName());
+                strings(out, names(dependencies.get(component)));
+                if (kind == INJECTION) {
+                    InjectionProvider.Injection injection = InjectionProvider.injection(implementation);
+                    strings(out, Stream.of(injection.constructor().getParameterTypes()).map(Class::getName).toList());
+                    out.writeShort(injection.fields().size());
+                    for (Field field : injection.fields())
+                        member(out, new Member(field.getDeclaringClass().getName(), field.getName(), List.of()));
+                    out.writeShort(injection.methods().size());
+                    for (Method method : injection.methods())
+                        member(out, new Member(method.getDeclaringClass().getName(), method.getName(),
+                                Stream.of(method.getParameterTypes()).map(Class::getName).toList()));
+                }
+            }
+            written = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(written, bytes.toByteArray());
+            Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException e) {
+            try {
+                if (written != null) Files.deleteIfExists(written);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static List<String> names(List<Class<?>> components) {
+        return components.stream().map(Class::getName).toList();
+    }
+
+    private static void member(DataOutputStream out, Member member) throws IOException {
+        string(out, member.declaring());
+        string(out, member.name());
+        strings(out, member.parameters());
+    }
+
+    private static void strings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeShort(strings.size());
+        for (String string : strings) string(out, string);
+    }
+
+    private static void string(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    // Covers the runtime version and the size and modification time of every class path file.
+    // Directories still have to be walked, since rewriting a class file does not touch its parent's
+    // timestamp, so this costs one attribute read per file. To keep that down the attributes come
+    // with the walk itself, files are combined without sorting, and the class path, which can't
+    // change under a running JVM, is only fingerprinted once for both reading and writing.
+    static synchronized long fingerprint() {
+        if (fingerprint != null) return fingerprint;
+        CRC32 crc = new CRC32();
+        crc.update(Runtime.version().toString().getBytes(StandardCharsets.UTF_8));
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path root = Path.of(entry);
+            if (!Files.exists(root)) continue;
+            long[] files = new long[1];
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        if (attributes.isRegularFile())
+                            files[0] += mix(mix(file.toString().hashCode() + attributes.size()) + attributes.lastModifiedTime().toMillis());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            crc.update(entry.getBytes(StandardCharsets.UTF_8));
+            crc.update(ByteBuffer.allocate(8).putLong(files[0]).flip());
+        }
+        fingerprint = crc.getValue();
+        return fingerprint;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ value >>> 33) * 0xff51afd7ed558ccdL;
+        value = (value ^ value >>> 33) * 0xc4ceb9fe1a85ec53L;
+        return value ^ value >>> 33;
+    }
+}
@@ -0,0 +1,156 @@
+package org.abbet.di;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Comparator.comparingLong;
+
+// Keeps the first resolution of every component together with the dependency graph of the last
+// context created. A component's own time leaves out resolving its dependencies; its total time
+// covers the whole subtree built for that first resolution.
+public class StartupProfiler implements ResolutionListener {
+    private final Map<Class<?>, Resolution> resolutions = new ConcurrentHashMap<>();
+    private volatile ContextCreation creation = new ContextCreation(Map.of(), 0, 0, 0);
+
+    @Override
+    public void resolved(Resolution resolution) {
+        resolutions.putIfAbsent(resolution.component(), resolution);
+    }
+
+    @Override
+    public void created(ContextCreation creation) {
+        this.creation = creation;
+    }
+
+    public long ownNanos(Class<?> component) {
+        Resolution resolution = resolutions.get(component);
+        return resolution == null ? 0 : resolution.constructorNanos() + resolution.fieldNanos() + resolution.methodNanos();
+    }
+
+    public long totalNanos(Class<?> component) {
+        Resolution resolution = resolutions.get(component);
+        return resolution == null ? 0 : resolution.totalNanos();
+    }
+
+    public int fanIn(Class<?> component) {
+        return fanIns().getOrDefault(component, 0);
+    }
+
+    // the dependency chain with the largest sum of own times, from the outermost component down
+    public List<Class<?>> criticalPath() {
+        Map<Class<?>, List<Class<?>>> graph = creation.dependencies();
+        Map<Class<?>, Long> weights = new HashMap<>();
+        Map<Class<?>, Class<?>> heaviest = new HashMap<>();
+        Class<?> current = null;
+        long max = -1;
+        for (Class<?> component : DependencyGraph.sort(graph.keySet(), component -> graph.getOrDefault(component, List.of())).order()) {
+            long weight = 0;
+            for (Class<?> dependency : graph.getOrDefault(component, List.of())) {
+                long dependencyWeight = weights.getOrDefault(dependency, 0L);
+                if (!heaviest.containsKey(component) || dependencyWeight > weight) {
+                    weight = dependencyWeight;
+                    heaviest.put(component, dependency);
+                }
+            }
+            weights.put(component, ownNanos(component) + weight);
+            // dependents come after their dependencies, so ties go to the outermost component
+            if (weights.get(component) >= max) {
+                max = weights.get(component);
+                current = component;
+            }
+        }
+        List<Class<?>> path = new ArrayList<>();
+        while (current != null) {
+            path.add(current);
+            current = heaviest.get(current);
+        }
+        return path;
+    }
+
+    public String toDot() {
+        Set<List<Class<?>>> critical = criticalEdges();
+        Set<Class<?>> path = new HashSet<>(criticalPath());
+        Map<Class<?>, Integer> fanIns = fanIns();
+        StringBuilder dot = new StringBuilder("digraph context {\n");
+        dot.append("  label=\"validation ").append(millis(creation.validationNanos()))
+                .append(" linking ").append(millis(creation.linkingNanos()))
+                .append(" initialization ").append(millis(creation.initializationNanos())).append("\";\n");
+        for (Class<?> component : components()) {
+            dot.append("  \"").append(component.getName()).append("\" [label=\"").append(component.getName())
+                    .append("\\nown ").append(millis(ownNanos(component)))
+                    .append("\\ntotal ").append(millis(totalNanos(component)))
+                    .append("\\nfan-in ").append(fanIns.getOrDefault(component, 0)).append('"');
+            if (path.contains(component)) dot.append(", color=red");
+            dot.append("];\n");
+        }
+        creation.dependencies().forEach((component, dependencies) -> {
+            for (Class<?> dependency : dependencies) {
+                dot.append("  \"").append(component.getName()).append("\" -> \"").append(dependency.getName()).append('"');
+                if (critical.contains(List.of(component, dependency))) dot.append(" [color=red]");
+                dot.append(";\n");
+            }
+        });
+        return dot.append("}\n").toString();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"validationNanos\":").append(creation.validationNanos())
+                .append(",\"linkingNanos\":").append(creation.linkingNanos())
+                .append(",\"initializationNanos\":").append(creation.initializationNanos())
+                .append(",\"criticalPath\":");
+        names(json, criticalPath());
+        json.append(",\"components\":[");
+        Map<Class<?>, Integer> fanIns = fanIns();
+        List<Class<?>> components = components();
+        for (int i = 0; i < components.size(); i++) {
+            Class<?> component = components.get(i);
+            Resolution resolution = resolutions.get(component);
+            if (i > 0) json.append(',');
+            json.append("{\"component\":\"").append(component.getName()).append('"');
+            if (resolution != null)
+                json.append(",\"implementation\":\"").append(resolution.implementation().getName()).append('"');
+            json.append(",\"ownNanos\":").append(ownNanos(component))
+                    .append(",\"totalNanos\":").append(totalNanos(component))
+                    .append(",\"fanIn\":").append(fanIns.getOrDefault(component, 0))
+                    .append(",\"dependencies\":");
+            names(json, creation.dependencies().getOrDefault(component, List.of()));
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    // heaviest subtrees first
+    private List<Class<?>> components() {
+        List<Class<?>> components = new ArrayList<>(creation.dependencies().keySet());
+        components.sort(comparingLong(this::totalNanos).reversed());
+        return components;
+    }
+
+    private Map<Class<?>, Integer> fanIns() {
+        Map<Class<?>, Integer> fanIns = new HashMap<>();
+        for (List<Class<?>> dependencies : creation.dependencies().values())
+            for (Class<?> dependency : dependencies) fanIns.merge(dependency, 1, Integer::sum);
+        return fanIns;
+    }
+
+    private Set<List<Class<?>>> criticalEdges() {
+        List<Class<?>> path = criticalPath();
+        Set<List<Class<?>>> edges = new HashSet<>();
+        for (int i = 1; i < path.size(); i++) edges.add(List.of(path.get(i - 1), path.get(i)));
+        return edges;
+    }
+
+    private static void names(StringBuilder json, List<Class<?>> components) {
+        json.append('[');
+        for (int i = 0; i < components.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(components.get(i).getName()).append('"');
+        }
+        json.append(']');
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f ms", nanos / 1_000_000.0);
+    }
+}
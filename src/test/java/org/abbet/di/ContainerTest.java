@@ -1,19 +1,29 @@
 package org.abbet.di;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Named;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.internal.util.collections.Sets;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -98,6 +108,14 @@ public class ContainerTest {
             }
         }
 
+        @Test
+        public void should_not_change_context_if_bind_after_get_context() {
+            Context context = config.getContext();
+            config.bind(Component.class, new Component() {
+            });
+            assertTrue(context.get(Component.class).isEmpty());
+        }
+
         @Test
         public void should_return_empty_if_component_not_defined() {
             Optional<Component> component = config.getContext().get(Component.class);
@@ -261,6 +279,116 @@ public class ContainerTest {
             return arguments.stream();
         }
 
+        @Test
+        public void should_report_every_cycle_found() {
+            config.bind(Component.class, CyclicComponentInjectConstructor.class);
+            config.bind(Dependency.class, CyclicDependencyInjectConstructor.class);
+            config.bind(AnotherDependency.class, SelfDependentAnotherDependency.class);
+            CyclicDependencyFoundException exception = assertThrows(CyclicDependencyFoundException.class, () -> config.getContext());
+
+            assertEquals(2, exception.getCycles().size());
+            assertEquals(Set.of(Component.class, Dependency.class, AnotherDependency.class), Sets.newSet(exception.getComponents()));
+        }
+
+        @Test
+        public void should_accept_binding_once_missing_dependency_bound_later() {
+            config.bind(Component.class, MissingDependencyConstructor.class);
+            assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+            config.bind(Dependency.class, new Dependency() {
+            });
+
+            assertTrue(config.getContext().get(Component.class).isPresent());
+        }
+
+        @Test
+        public void should_throw_exception_if_rebinding_after_get_context_introduces_cycle() {
+            config.bind(Component.class, CyclicComponentInjectConstructor.class);
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.getContext();
+
+            config.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+            config.getContext();
+            config.bind(Dependency.class, CyclicDependencyInjectConstructor.class);
+            CyclicDependencyFoundException exception = assertThrows(CyclicDependencyFoundException.class, () -> config.getContext());
+
+            assertEquals(Set.of(Component.class, Dependency.class), Sets.newSet(exception.getComponents()));
+        }
+
+        @Test
+        public void should_keep_bindings_of_earlier_context_after_rebinding() {
+            Dependency first = new Dependency() {
+            };
+            config.bind(Dependency.class, first);
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            Context context = config.getContext();
+
+            List<Dependency> rebound = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                Dependency dependency = new Dependency() {
+                };
+                config.bind(Dependency.class, dependency);
+                rebound.add(dependency);
+                assertSame(dependency, config.getContext().get(Component.class).get().dependency());
+            }
+
+            assertSame(first, context.get(Component.class).get().dependency());
+            assertSame(rebound.get(31), config.getContext().get(Dependency.class).get());
+        }
+
+        @Test
+        public void should_only_touch_changed_bindings_on_each_get_context() {
+            List<Class<?>> keys = List.of(String.class, Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class, Character.class);
+            int[] touched = new int[1];
+            List<Integer> rounds = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                List<Class<?>> dependencies = i == 0 ? List.of() : List.of(keys.get(i - 1));
+                config.register(keys.get(i), new ContextConfig.ComponentProvider<>() {
+                    @Override
+                    public Object get(Context context) {
+                        return this;
+                    }
+
+                    @Override
+                    public List<Class<?>> getDependencies() {
+                        touched[0]++;
+                        return dependencies;
+                    }
+
+                    @Override
+                    public ContextConfig.ComponentProvider<Object> link(ContextConfig.Linker linker) {
+                        touched[0]++;
+                        return this;
+                    }
+                });
+                touched[0] = 0;
+                config.getContext();
+                rounds.add(touched[0]);
+            }
+
+            assertEquals(1, Set.copyOf(rounds).size(), rounds::toString);
+        }
+
+        @Test
+        public void should_keep_dependencies_ordered_when_bound_after_get_context() {
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.getContext();
+
+            config.bind(Dependency.class, DependencyDependedOnAnotherDependency.class);
+            config.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+
+            assertInstanceOf(DependencyDependedOnAnotherDependency.class, config.getContext(ContextConfig.Initialization.EAGER).get(Component.class).get().dependency());
+        }
+
+        static class SelfDependentAnotherDependency implements AnotherDependency {
+            @Inject
+            AnotherDependency self;
+        }
+
         static class IndirectCyclicDependencyInjectConstructor implements Dependency {
             private AnotherDependency anotherDependency;
 
@@ -315,13 +443,1399 @@ public class ContainerTest {
     @Nested
     public class DependenciesSelection {
 
+        @Test
+        public void should_inject_provider_and_defer_creation_until_get() {
+            config.bind(Component.class, ComponentWithProvider.class);
+            config.bind(Dependency.class, CountingDependency.class);
+            CountingDependency.created.set(0);
+
+            ComponentWithProvider component = (ComponentWithProvider) config.getContext().get(Component.class).get();
+            assertEquals(0, CountingDependency.created.get());
+            assertNotSame(component.dependency.get(), component.dependency.get());
+            assertEquals(2, CountingDependency.created.get());
+        }
+
+        @Test
+        public void should_throw_exception_if_provided_dependency_not_found() {
+            config.bind(Component.class, ComponentWithProvider.class);
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+            assertEquals(Dependency.class, exception.getDependency());
+            assertEquals(Component.class, exception.getComponent());
+        }
+
+        @Test
+        public void should_not_throw_exception_if_cyclic_dependency_via_provider() {
+            config.bind(Component.class, ComponentWithProvider.class);
+            config.bind(Dependency.class, DependencyDependedOnComponent.class);
+            Context context = config.getContext();
+            ComponentWithProvider component = (ComponentWithProvider) context.get(Component.class).get();
+            assertNotNull(component.dependency.get());
+        }
+
+        static class ComponentWithProvider implements Component {
+            @Inject
+            Provider<Dependency> dependency;
+        }
+
+        static class CountingDependency implements Dependency {
+            static final AtomicInteger created = new AtomicInteger();
+
+            public CountingDependency() {
+                created.incrementAndGet();
+            }
+        }
+
+        static class DependencyDependedOnComponent implements Dependency {
+            @Inject
+            public DependencyDependedOnComponent(Component component) {
+            }
+        }
+    }
+
+    @Nested
+    public class Multibindings {
+
+        @Test
+        public void should_inject_contributions_as_set_in_contribution_order() {
+            Dependency dependency = new Dependency() {
+            };
+            config.contribute(Dependency.class, dependency);
+            config.contribute(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.bind(Component.class, SetInjection.class);
+            Context context = config.getContext();
+
+            SetInjection component = (SetInjection) context.get(Component.class).get();
+            List<Dependency> dependencies = List.copyOf(component.dependencies);
+            assertSame(dependency, dependencies.get(0));
+            assertInstanceOf(LifecycleManagement.DependencyInstance.class, dependencies.get(1));
+            assertThrows(UnsupportedOperationException.class, () -> component.dependencies.add(dependency));
+        }
+
+        @Test
+        public void should_share_collection_if_every_contribution_is_instance_or_singleton() {
+            config.contribute(Dependency.class, new Dependency() {
+            });
+            config.contribute(Dependency.class, LifecycleManagement.SingletonDependency.class);
+            config.bind(Component.class, SetInjection.class);
+            Context context = config.getContext();
+
+            assertSame(((SetInjection) context.get(Component.class).get()).dependencies, ((SetInjection) context.get(Component.class).get()).dependencies);
+        }
+
+        @Test
+        public void should_build_prototype_contribution_for_each_injection() {
+            config.contribute(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.bind(Component.class, SetInjection.class);
+            Context context = config.getContext();
+
+            assertNotSame(((SetInjection) context.get(Component.class).get()).dependencies.iterator().next(),
+                    ((SetInjection) context.get(Component.class).get()).dependencies.iterator().next());
+        }
+
+        @Test
+        public void should_resolve_request_scoped_contribution_per_request() {
+            config.contribute(Dependency.class, "request", LifecycleManagement.RequestScopedDependency.class);
+            config.bind(Component.class, MapInjection.class);
+            Context context = config.getContext();
+
+            Dependency first = context.within(RequestScoped.class, () -> ((MapInjection) context.get(Component.class).get()).dependencies.get("request"));
+            Dependency second = context.within(RequestScoped.class, () -> ((MapInjection) context.get(Component.class).get()).dependencies.get("request"));
+            assertNotSame(first, second);
+        }
+
+        @Test
+        public void should_inject_named_contributions_as_map() {
+            Dependency dependency = new Dependency() {
+            };
+            config.contribute(Dependency.class, "b", dependency);
+            config.contribute(Dependency.class, "a", LifecycleManagement.DependencyInstance.class);
+            config.bind(Component.class, MapInjection.class);
+
+            Map<String, Dependency> dependencies = ((MapInjection) config.getContext().get(Component.class).get()).dependencies;
+            assertEquals(List.of("b", "a"), List.copyOf(dependencies.keySet()));
+            assertSame(dependency, dependencies.get("b"));
+        }
+
+        @Test
+        public void should_throw_exception_if_contribution_name_duplicated() {
+            config.contribute(Dependency.class, "a", new Dependency() {
+            });
+
+            assertThrows(IllegalComponentException.class, () -> config.contribute(Dependency.class, "a", LifecycleManagement.DependencyInstance.class));
+        }
+
+        @Test
+        public void should_throw_exception_if_contribution_dependency_not_found() {
+            config.contribute(Dependency.class, DependencyDependedOnAnotherDependency.class);
+            config.bind(Component.class, SetInjection.class);
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+            assertEquals(AnotherDependency.class, exception.getDependency());
+        }
+
+        @Test
+        public void should_throw_exception_if_cycle_passes_through_contribution() {
+            config.contribute(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class);
+            config.bind(Component.class, SetInjection.class);
+
+            assertThrows(CyclicDependencyFoundException.class, () -> config.getContext());
+        }
+
+        @Test
+        public void should_throw_exception_if_no_contribution_for_injected_set() {
+            config.bind(Component.class, SetInjection.class);
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+            assertTrue(exception.getDependency().getName().contains("Set<"));
+        }
+
+        @Test
+        public void should_keep_multibinding_apart_from_array_binding() {
+            Dependency[] dependencies = {new Dependency() {
+            }};
+            config.contribute(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.bind(Dependency[].class, dependencies);
+            config.bind(Component.class, SetInjection.class);
+            Context context = config.getContext();
+
+            assertSame(dependencies, context.get(Dependency[].class).get());
+            assertInstanceOf(LifecycleManagement.DependencyInstance.class, ((SetInjection) context.get(Component.class).get()).dependencies.iterator().next());
+        }
+
+        @Test
+        public void should_inject_contributions_of_array_type() {
+            Dependency[] dependencies = {new Dependency() {
+            }};
+            config.contribute(Dependency[].class, dependencies);
+            config.bind(Component.class, ArraySetInjection.class);
+
+            assertEquals(Set.<Dependency[]>of(dependencies), ((ArraySetInjection) config.getContext().get(Component.class).get()).dependencies);
+        }
+
+        @Test
+        public void should_not_change_created_context_by_later_contribution() {
+            config.contribute(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.bind(Component.class, SetInjection.class);
+            Context context = config.getContext();
+            for (int i = 0; i < 8; i++) config.contribute(Dependency.class, new Dependency() {
+            });
+
+            assertEquals(1, ((SetInjection) context.get(Component.class).get()).dependencies.size());
+            assertEquals(9, ((SetInjection) config.getContext().get(Component.class).get()).dependencies.size());
+        }
+
+        static class SetInjection implements Component {
+            @Inject
+            Set<Dependency> dependencies;
+        }
+
+        static class MapInjection implements Component {
+            @Inject
+            Map<String, Dependency> dependencies;
+        }
+
+        static class ArraySetInjection implements Component {
+            @Inject
+            Set<Dependency[]> dependencies;
+        }
+    }
+
+    @Nested
+    public class RootSelection {
+
+        @Test
+        public void should_only_include_components_reachable_from_roots() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            config.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+            Context context = config.getContext(Component.class);
+
+            assertTrue(context.get(Component.class).isPresent());
+            assertTrue(context.get(Dependency.class).isPresent());
+            assertTrue(context.get(AnotherDependency.class).isEmpty());
+        }
+
+        @Test
+        public void should_not_validate_unreachable_bindings() {
+            config.bind(Component.class, DependencyCheck.MissingDependencyConstructor.class);
+            config.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+
+            assertTrue(config.getContext(AnotherDependency.class).get(AnotherDependency.class).isPresent());
+        }
+
+        @Test
+        public void should_throw_exception_if_reachable_dependency_not_found() {
+            config.bind(Component.class, DependencyCheck.MissingDependencyConstructor.class);
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext(Component.class));
+
+            assertEquals(Dependency.class, exception.getDependency());
+        }
+
+        @Test
+        public void should_throw_exception_if_root_not_bound() {
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext(String.class));
+
+            assertEquals(String.class, exception.getDependency());
+            assertThrows(DependencyNotFoundException.class, () -> config.getUnreachable(String.class));
+        }
+
+        @Test
+        public void should_throw_exception_if_reachable_cycle_found() {
+            config.bind(Component.class, DependencyCheck.CyclicComponentInjectConstructor.class);
+            config.bind(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class);
+
+            assertThrows(CyclicDependencyFoundException.class, () -> config.getContext(Dependency.class));
+        }
+
+        @Test
+        public void should_report_unreachable_bindings() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(Component.class, TypeBinding.FieldInjection.class);
+            config.bind(AnotherDependency.class, AnotherDependencyDependComponent.class);
+
+            assertEquals(Set.of(AnotherDependency.class), config.getUnreachable(Component.class));
+            assertEquals(Set.of(), config.getUnreachable(AnotherDependency.class));
+        }
+    }
+
+    @Nested
+    public class ResolutionInstrumentation {
+
+        @Test
+        public void should_count_resolutions_per_binding() {
+            ResolutionMetrics metrics = new ResolutionMetrics();
+            config.instrument(metrics);
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            config.bind(Dependency.class, new Dependency() {
+            });
+            Context context = config.getContext();
+            context.get(Component.class);
+            context.get(Component.class);
+
+            ResolutionMetrics.Snapshot snapshot = metrics.get(Component.class).get();
+            assertEquals(2, snapshot.count());
+            assertEquals(2, Arrays.stream(snapshot.histogram()).sum());
+            assertTrue(metrics.get(Dependency.class).isEmpty());
+        }
+
+        @Test
+        public void should_notify_listener_for_dependencies_before_dependents() {
+            List<Resolution> resolutions = new ArrayList<>();
+            config.instrument(resolutions::add);
+            config.bind(Component.class, TypeBinding.FieldInjection.class);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.getContext().get(Component.class);
+
+            assertEquals(List.of(Dependency.class, Component.class), resolutions.stream().map(Resolution::component).toList());
+            assertEquals(TypeBinding.FieldInjection.class, resolutions.get(1).implementation());
+            assertTrue(resolutions.get(1).totalNanos() >= resolutions.get(0).totalNanos());
+        }
+
+        @Test
+        public void should_emit_flight_recorder_event_per_resolution() throws Exception {
+            config.instrument();
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            Context context = config.getContext();
+            Path file = Files.createTempFile("resolution", ".jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable("org.abbet.di.Resolution").withThreshold(Duration.ZERO);
+                recording.start();
+                context.get(Dependency.class);
+                recording.stop();
+                recording.dump(file);
+
+                List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                        .filter(event -> event.getEventType().getName().equals("org.abbet.di.Resolution")).toList();
+                assertEquals(1, events.size());
+                assertEquals(Dependency.class.getName(), events.get(0).getClass("component").getName());
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        @Test
+        public void should_profile_critical_path_of_first_resolutions() {
+            StartupProfiler profiler = new StartupProfiler();
+            config.instrument(profiler);
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            config.bind(Dependency.class, LifecycleManagement.SlowSingletonDependency.class);
+            config.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+            config.getContext().get(Component.class);
+
+            assertEquals(List.of(Component.class, Dependency.class), profiler.criticalPath());
+            assertTrue(profiler.ownNanos(Dependency.class) >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertTrue(profiler.totalNanos(Component.class) >= profiler.totalNanos(Dependency.class));
+            assertEquals(1, profiler.fanIn(Dependency.class));
+        }
 
+        @Test
+        public void should_export_profiled_graph() {
+            StartupProfiler profiler = new StartupProfiler();
+            config.instrument(profiler);
+            config.bind(Component.class, TypeBinding.FieldInjection.class);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.getContext().get(Component.class);
+
+            String dot = profiler.toDot();
+            assertTrue(dot.startsWith("digraph context {"));
+            assertTrue(dot.contains("\"" + Component.class.getName() + "\" -> \"" + Dependency.class.getName() + "\" [color=red];"));
+            String json = profiler.toJson();
+            assertTrue(json.contains("\"criticalPath\":[\"" + Component.class.getName() + "\",\"" + Dependency.class.getName() + "\"]"));
+            assertTrue(json.contains("\"implementation\":\"" + TypeBinding.FieldInjection.class.getName() + "\""));
+        }
     }
 
     @Nested
     public class LifecycleManagement {
 
+        @Test
+        public void should_create_new_instance_for_default_scope() {
+            config.bind(Component.class, TypeBinding.FieldInjection.class);
+            config.bind(Dependency.class, DependencyInstance.class);
+            Context context = config.getContext();
+            assertNotSame(context.get(Component.class).get(), context.get(Component.class).get());
+            assertNotSame(context.get(Component.class).get().dependency(), context.get(Component.class).get().dependency());
+        }
+
+        @Test
+        public void should_share_singleton_annotated_component_between_dependents() {
+            config.bind(Component.class, TypeBinding.FieldInjection.class);
+            config.bind(Dependency.class, SingletonDependency.class);
+            Context context = config.getContext();
+            assertSame(context.get(Dependency.class).get(), context.get(Component.class).get().dependency());
+            assertSame(context.get(Component.class).get().dependency(), context.get(Component.class).get().dependency());
+        }
+
+        @Test
+        public void should_bind_component_as_singleton_explicitly() {
+            config.bind(Dependency.class, DependencyInstance.class, Singleton.class);
+            Context context = config.getContext();
+            assertSame(context.get(Dependency.class).get(), context.get(Dependency.class).get());
+        }
+
+        @Test
+        public void should_not_share_singleton_between_contexts() {
+            config.bind(Dependency.class, SingletonDependency.class);
+            assertNotSame(config.getContext().get(Dependency.class).get(), config.getContext().get(Dependency.class).get());
+        }
+
+        @Test
+        public void should_create_singleton_on_get_context_if_eager() {
+            config.bind(Dependency.class, SlowSingletonDependency.class);
+            SlowSingletonDependency.created.set(0);
+            config.getContext(ContextConfig.Initialization.EAGER);
+            assertEquals(1, SlowSingletonDependency.created.get());
+        }
+
+        @Test
+        public void should_not_create_singleton_on_get_context_if_lazy() {
+            config.bind(Dependency.class, SlowSingletonDependency.class);
+            SlowSingletonDependency.created.set(0);
+            config.getContext();
+            assertEquals(0, SlowSingletonDependency.created.get());
+        }
+
+        @Test
+        public void should_create_independent_singletons_concurrently_if_eager() {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                config.executor(executor);
+                config.bind(Dependency.class, BarrierDependency.class);
+                config.bind(AnotherDependency.class, BarrierAnotherDependency.class);
+                config.bind(Component.class, SingletonComponent.class);
+                BarrierDependency.barrier = new CyclicBarrier(2);
+
+                Context context = config.getContext(ContextConfig.Initialization.EAGER);
+                assertSame(context.get(Dependency.class).get(), context.get(Component.class).get().dependency());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Singleton
+        static class BarrierDependency implements Dependency {
+            static CyclicBarrier barrier;
+
+            public BarrierDependency() throws Exception {
+                barrier.await(5, TimeUnit.SECONDS);
+            }
+        }
+
+        @Singleton
+        static class BarrierAnotherDependency implements AnotherDependency {
+            public BarrierAnotherDependency() throws Exception {
+                BarrierDependency.barrier.await(5, TimeUnit.SECONDS);
+            }
+        }
+
+        @Singleton
+        static class SingletonComponent implements Component {
+            private final Dependency dependency;
+
+            @Inject
+            public SingletonComponent(Dependency dependency, AnotherDependency anotherDependency) {
+                this.dependency = dependency;
+            }
+
+            @Override
+            public Dependency dependency() {
+                return dependency;
+            }
+        }
+
+        @Test
+        public void should_create_singleton_exactly_once_under_contention() throws Exception {
+            config.bind(Dependency.class, SlowSingletonDependency.class);
+            Context context = config.getContext();
+            SlowSingletonDependency.created.set(0);
+
+            int threads = 32;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<Future<Set<Dependency>>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++)
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        Set<Dependency> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+                        for (int j = 0; j < 1000; j++) seen.add(context.get(Dependency.class).get());
+                        return seen;
+                    }));
+                start.countDown();
+
+                Set<Dependency> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Future<Set<Dependency>> result : results) instances.addAll(result.get(10, TimeUnit.SECONDS));
+                assertEquals(1, instances.size());
+                assertEquals(1, SlowSingletonDependency.created.get());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        public void should_share_request_scoped_component_within_request() {
+            config.bind(Dependency.class, RequestScopedDependency.class);
+            Context context = config.getContext();
+            Dependency first = context.within(RequestScoped.class, () -> {
+                assertSame(context.get(Dependency.class).get(), context.get(Dependency.class).get());
+                return context.get(Dependency.class).get();
+            });
+            Dependency second = context.within(RequestScoped.class, () -> context.get(Dependency.class).get());
+            assertNotSame(first, second);
+        }
+
+        @Test
+        public void should_throw_exception_if_request_scoped_component_used_outside_request() {
+            config.bind(Dependency.class, RequestScopedDependency.class);
+            Context context = config.getContext();
+            assertThrows(IllegalStateException.class, () -> context.get(Dependency.class));
+        }
+
+        @Test
+        public void should_bind_component_with_custom_scope() {
+            Dependency instance = new Dependency() {
+            };
+            config.scope(Custom.class, new Scope() {
+                @Override
+                public <T> ContextConfig.ComponentProvider<T> create(ContextConfig.ComponentProvider<T> provider) {
+                    return context -> (T) instance;
+                }
+            });
+            config.bind(Dependency.class, DependencyInstance.class, Custom.class);
+            assertSame(instance, config.getContext().get(Dependency.class).get());
+        }
+
+        @Test
+        public void should_throw_exception_if_scope_not_registered() {
+            assertThrows(IllegalComponentException.class, () -> config.bind(Dependency.class, UnknownScopedDependency.class));
+        }
+
+        @Test
+        public void should_throw_exception_if_multiple_scopes_provided() {
+            assertThrows(IllegalComponentException.class, () -> config.bind(Dependency.class, DependencyInstance.class, Singleton.class, RequestScoped.class));
+        }
+
+        @Retention(RetentionPolicy.RUNTIME)
+        @interface Custom {
+        }
+
+        @jakarta.inject.Scope
+        @Retention(RetentionPolicy.RUNTIME)
+        @interface Unknown {
+        }
+
+        @Unknown
+        static class UnknownScopedDependency implements Dependency {
+        }
+
+        @RequestScoped
+        static class RequestScopedDependency implements Dependency {
+        }
+
+        static class DependencyInstance implements Dependency {
+        }
+
+        @Singleton
+        static class SingletonDependency implements Dependency {
+        }
+
+        @Singleton
+        static class SlowSingletonDependency implements Dependency {
+            static final AtomicInteger created = new AtomicInteger();
+
+            public SlowSingletonDependency() throws InterruptedException {
+                created.incrementAndGet();
+                Thread.sleep(50);
+            }
+        }
+    }
 
+    @Nested
+    public class AsynchronousResolution {
+
+        @Test
+        public void should_resolve_component_asynchronously() throws Exception {
+            Dependency dependency = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bind(Component.class, TypeBinding.MethodInjection.class);
+
+            assertSame(dependency, config.getContext().getAsync(Component.class).get(5, TimeUnit.SECONDS).dependency());
+        }
+
+        @Test
+        public void should_build_sibling_dependencies_concurrently() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                config.executor(executor);
+                config.bind(Dependency.class, LifecycleManagement.BarrierDependency.class);
+                config.bind(AnotherDependency.class, LifecycleManagement.BarrierAnotherDependency.class);
+                config.bind(Component.class, LifecycleManagement.SingletonComponent.class);
+                LifecycleManagement.BarrierDependency.barrier = new CyclicBarrier(2);
+
+                Context context = config.getContext();
+                Component component = context.getAsync(Component.class).get(10, TimeUnit.SECONDS);
+                assertSame(context.get(Dependency.class).get(), component.dependency());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        public void should_share_singleton_construction_between_async_requests() throws Exception {
+            config.bind(Dependency.class, LifecycleManagement.SlowSingletonDependency.class);
+            Context context = config.getContext();
+            LifecycleManagement.SlowSingletonDependency.created.set(0);
+
+            CompletableFuture<Dependency> first = context.getAsync(Dependency.class);
+            CompletableFuture<Dependency> second = context.getAsync(Dependency.class);
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertSame(first.get(), context.get(Dependency.class).get());
+            assertEquals(1, LifecycleManagement.SlowSingletonDependency.created.get());
+        }
+
+        @Test
+        public void should_fail_future_if_component_not_bound() {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> config.getContext().getAsync(Component.class).get());
+
+            assertInstanceOf(NoSuchElementException.class, exception.getCause());
+        }
+
+        @Test
+        public void should_resolve_request_scoped_dependency_below_cached_component() {
+            config.bind(AnotherDependency.class, ResolutionSession.AnotherDependencyWithDependency.class, Cached.class);
+
+            assertResolvedWithinRequest(AnotherDependencyComponent.class);
+        }
+
+        @Test
+        public void should_resolve_request_scoped_dependency_below_pooled_component() {
+            config.bind(AnotherDependency.class, ResolutionSession.AnotherDependencyWithDependency.class, Pooled.class);
+
+            assertResolvedWithinRequest(AnotherDependencyComponent.class);
+        }
+
+        @Test
+        public void should_resolve_request_scoped_dependency_below_multibinding() {
+            config.contribute(AnotherDependency.class, ResolutionSession.AnotherDependencyWithDependency.class);
+
+            assertResolvedWithinRequest(AnotherDependencySetComponent.class);
+        }
+
+        private void assertResolvedWithinRequest(Class<? extends Component> component) {
+            config.bind(Dependency.class, LifecycleManagement.RequestScopedDependency.class);
+            config.bind(Component.class, component);
+            Context context = config.getContext();
+
+            context.within(RequestScoped.class, () -> {
+                Dependency dependency = context.get(Dependency.class).get();
+                assertSame(dependency, context.getAsync(Component.class).join().dependency());
+                return null;
+            });
+        }
+
+        static class AnotherDependencyComponent implements Component {
+            @Inject
+            AnotherDependency anotherDependency;
+
+            @Override
+            public Dependency dependency() {
+                return ((ResolutionSession.AnotherDependencyWithDependency) anotherDependency).dependency;
+            }
+        }
+
+        static class AnotherDependencySetComponent implements Component {
+            @Inject
+            Set<AnotherDependency> anotherDependencies;
+
+            @Override
+            public Dependency dependency() {
+                return ((ResolutionSession.AnotherDependencyWithDependency) anotherDependencies.iterator().next()).dependency;
+            }
+        }
+    }
+
+    @Nested
+    public class ResolutionSession {
+
+        @Test
+        public void should_share_resolution_scoped_component_within_one_get() {
+            config.bind(Dependency.class, SessionDependency.class);
+            config.bind(AnotherDependency.class, AnotherDependencyWithDependency.class);
+            config.bind(Component.class, DiamondComponent.class);
+            Context context = config.getContext();
+
+            DiamondComponent first = (DiamondComponent) context.get(Component.class).get();
+            DiamondComponent second = (DiamondComponent) context.get(Component.class).get();
+
+            assertSame(first.dependency, ((AnotherDependencyWithDependency) first.anotherDependency).dependency);
+            assertNotSame(first.dependency, second.dependency);
+        }
+
+        @Test
+        public void should_share_resolution_scoped_component_across_get_all() {
+            config.bind(Dependency.class, SessionDependency.class);
+            config.bind(AnotherDependency.class, AnotherDependencyWithDependency.class);
+            List<Optional<?>> resolved = config.getContext().getAll(Dependency.class, AnotherDependency.class, Component.class);
+
+            assertSame(resolved.get(0).get(), ((AnotherDependencyWithDependency) resolved.get(1).get()).dependency);
+            assertTrue(resolved.get(2).isEmpty());
+        }
+
+        @Test
+        public void should_build_prototype_component_for_each_dependent() {
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.bind(AnotherDependency.class, AnotherDependencyWithDependency.class);
+            config.bind(Component.class, DiamondComponent.class);
+            DiamondComponent component = (DiamondComponent) config.getContext().get(Component.class).get();
+
+            assertNotSame(component.dependency, ((AnotherDependencyWithDependency) component.anotherDependency).dependency);
+        }
+
+        @Test
+        public void should_share_resolution_scoped_component_within_one_get_async() {
+            config.bind(Dependency.class, SlowSessionDependency.class);
+            config.bind(AnotherDependency.class, AnotherDependencyWithDependency.class);
+            config.bind(Component.class, DiamondComponent.class);
+            Context context = config.getContext();
+            SlowSessionDependency.created.set(0);
+
+            for (int i = 0; i < 5; i++) {
+                DiamondComponent component = (DiamondComponent) context.getAsync(Component.class).join();
+                assertSame(component.dependency, ((AnotherDependencyWithDependency) component.anotherDependency).dependency);
+            }
+            assertEquals(5, SlowSessionDependency.created.get());
+        }
+
+        @Test
+        public void should_share_resolution_scoped_contribution_within_one_get() {
+            config.contribute(Dependency.class, SessionDependency.class);
+            config.bind(Component.class, TwiceInjectedSet.class);
+            Context context = config.getContext();
+
+            TwiceInjectedSet first = (TwiceInjectedSet) context.get(Component.class).get();
+            TwiceInjectedSet second = (TwiceInjectedSet) context.handle(Component.class).get();
+
+            assertSame(first.dependencies.iterator().next(), first.sameDependencies.iterator().next());
+            assertSame(second.dependencies.iterator().next(), second.sameDependencies.iterator().next());
+            assertNotSame(first.dependencies.iterator().next(), second.dependencies.iterator().next());
+        }
+
+        @Test
+        public void should_open_new_session_for_each_call_of_provider_kept_after_resolution() {
+            config.bind(Dependency.class, SessionDependency.class);
+            config.bind(Component.class, SingletonWithSessionProvider.class);
+            SingletonWithSessionProvider component = (SingletonWithSessionProvider) config.getContext().get(Component.class).get();
+
+            assertNotSame(component.dependency.get(), component.dependency.get());
+        }
+
+        @Test
+        public void should_throw_exception_if_resolution_scoped_component_reentered_while_built() {
+            config.bind(Dependency.class, ReentrantSessionDependency.class);
+            Context context = config.getContext();
+
+            Throwable failure = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(RuntimeException.class, () -> context.get(Dependency.class)));
+            while (!(failure instanceof CyclicDependencyFoundException) && failure.getCause() != null) failure = failure.getCause();
+            CyclicDependencyFoundException exception = assertInstanceOf(CyclicDependencyFoundException.class, failure);
+            assertArrayEquals(new Class<?>[]{Dependency.class}, exception.getComponents());
+        }
+
+        @ResolutionScoped
+        static class SessionDependency implements Dependency {
+        }
+
+        @ResolutionScoped
+        static class ReentrantSessionDependency implements Dependency {
+            @Inject
+            public ReentrantSessionDependency(Provider<Dependency> dependency) {
+                dependency.get();
+            }
+        }
+
+        @ResolutionScoped
+        static class SlowSessionDependency implements Dependency {
+            static final AtomicInteger created = new AtomicInteger();
+
+            public SlowSessionDependency() throws InterruptedException {
+                created.incrementAndGet();
+                Thread.sleep(20);
+            }
+        }
+
+        static class AnotherDependencyWithDependency implements AnotherDependency {
+            @Inject
+            Dependency dependency;
+        }
+
+        static class DiamondComponent implements Component {
+            @Inject
+            Dependency dependency;
+            @Inject
+            AnotherDependency anotherDependency;
+        }
+
+        @Singleton
+        static class SingletonWithSessionProvider implements Component {
+            @Inject
+            Provider<Dependency> dependency;
+        }
+
+        static class TwiceInjectedSet implements Component {
+            @Inject
+            Set<Dependency> dependencies;
+            @Inject
+            Set<Dependency> sameDependencies;
+        }
+    }
+
+    @Nested
+    public class PooledComponent {
+
+        @Test
+        public void should_reuse_returned_instance() {
+            config.bind(Dependency.class, PooledDependency.class);
+            ObjectPool<Dependency> pool = config.getContext().pool(Dependency.class).get();
+
+            Dependency first;
+            try (ObjectPool.Lease<Dependency> lease = pool.borrow()) {
+                first = lease.get();
+            }
+            try (ObjectPool.Lease<Dependency> lease = pool.borrow()) {
+                assertSame(first, lease.get());
+            }
+            assertEquals(new ObjectPool.Metrics(1, 1, 0, 1), pool.metrics());
+        }
+
+        @Test
+        public void should_build_new_instance_while_pooled_one_borrowed() {
+            config.bind(Dependency.class, PooledDependency.class);
+            ObjectPool<Dependency> pool = config.getContext().pool(Dependency.class).get();
+
+            try (ObjectPool.Lease<Dependency> first = pool.borrow(); ObjectPool.Lease<Dependency> second = pool.borrow()) {
+                assertNotSame(first.get(), second.get());
+            }
+            assertEquals(2, pool.metrics().idle());
+        }
+
+        @Test
+        public void should_not_keep_more_idle_instances_than_max_size() {
+            config.scope(Pooled.class, new PoolScope(1, Duration.ofMinutes(1)));
+            config.bind(Dependency.class, PooledDependency.class);
+            ObjectPool<Dependency> pool = config.getContext().pool(Dependency.class).get();
+
+            ObjectPool.Lease<Dependency> first = pool.borrow();
+            ObjectPool.Lease<Dependency> second = pool.borrow();
+            first.close();
+            second.close();
+
+            assertEquals(1, pool.metrics().idle());
+        }
+
+        @Test
+        public void should_evict_idle_instances() {
+            config.scope(Pooled.class, new PoolScope(4, Duration.ZERO));
+            config.bind(Dependency.class, PooledDependency.class);
+            ObjectPool<Dependency> pool = config.getContext().pool(Dependency.class).get();
+
+            Dependency first;
+            try (ObjectPool.Lease<Dependency> lease = pool.borrow()) {
+                first = lease.get();
+            }
+            try (ObjectPool.Lease<Dependency> lease = pool.borrow()) {
+                assertNotSame(first, lease.get());
+            }
+            assertEquals(1, pool.metrics().evictions());
+        }
+
+        @Test
+        public void should_not_use_returned_lease() {
+            config.bind(Dependency.class, PooledDependency.class);
+            ObjectPool.Lease<Dependency> lease = config.getContext().pool(Dependency.class).get().borrow();
+            lease.close();
+
+            assertThrows(IllegalStateException.class, lease::get);
+        }
+
+        @Test
+        public void should_not_provide_pool_for_component_not_pooled() {
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+
+            assertTrue(config.getContext().pool(Dependency.class).isEmpty());
+        }
+
+        @Pooled
+        static class PooledDependency implements Dependency {
+        }
+    }
+
+    @Nested
+    public class CachedComponent {
+
+        @Test
+        public void should_return_cached_instance() {
+            config.bind(Dependency.class, CachedDependency.class);
+            Context context = config.getContext();
+
+            assertSame(context.get(Dependency.class).get(), context.get(Dependency.class).get());
+        }
+
+        @Test
+        public void should_rebuild_least_recently_used_instance_after_eviction() {
+            config.scope(Cached.class, new CacheScope(2));
+            config.bind(Dependency.class, CachedDependency.class);
+            config.bind(AnotherDependency.class, CachedAnotherDependency.class);
+            config.bind(Component.class, CachedInstance.class);
+            Context context = config.getContext();
+
+            Dependency dependency = context.get(Dependency.class).get();
+            AnotherDependency anotherDependency = context.get(AnotherDependency.class).get();
+            context.get(Dependency.class);
+            context.get(Component.class);
+
+            assertSame(dependency, context.get(Dependency.class).get());
+            assertNotSame(anotherDependency, context.get(AnotherDependency.class).get());
+        }
+
+        @Test
+        public void should_evict_by_weight() {
+            config.scope(Cached.class, new CacheScope(10, instance -> instance instanceof Dependency ? 8 : 4, true));
+            config.bind(Dependency.class, CachedDependency.class);
+            config.bind(AnotherDependency.class, CachedAnotherDependency.class);
+            Context context = config.getContext();
+
+            Dependency dependency = context.get(Dependency.class).get();
+            AnotherDependency anotherDependency = context.get(AnotherDependency.class).get();
+
+            assertSame(anotherDependency, context.get(AnotherDependency.class).get());
+            assertNotSame(dependency, context.get(Dependency.class).get());
+        }
+
+        @Test
+        public void should_build_missing_instance_once_for_concurrent_gets() throws Exception {
+            config.bind(Dependency.class, SlowCachedDependency.class);
+            Context context = config.getContext();
+            SlowCachedDependency.created.set(0);
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Dependency>> gets = new ArrayList<>();
+                for (int i = 0; i < 4; i++) gets.add(executor.submit(() -> {
+                    start.await();
+                    return context.get(Dependency.class).get();
+                }));
+                start.countDown();
+                Set<Dependency> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Future<Dependency> get : gets) instances.add(get.get());
+                assertEquals(1, instances.size());
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(1, SlowCachedDependency.created.get());
+        }
+
+        @Test
+        public void should_cache_instance_per_context() {
+            config.bind(Dependency.class, CachedDependency.class);
+
+            assertNotSame(config.getContext().get(Dependency.class).get(), config.getContext().get(Dependency.class).get());
+        }
+
+        @Cached
+        static class CachedDependency implements Dependency {
+        }
+
+        @Cached
+        static class SlowCachedDependency implements Dependency {
+            static final AtomicInteger created = new AtomicInteger();
+
+            public SlowCachedDependency() throws InterruptedException {
+                created.incrementAndGet();
+                Thread.sleep(20);
+            }
+        }
+
+        @Cached
+        static class CachedAnotherDependency implements AnotherDependency {
+        }
+
+        @Cached
+        static class CachedInstance implements Component {
+        }
+    }
+
+    @Nested
+    public class ResolvedHandle {
+
+        @Test
+        public void should_resolve_component_through_handle() {
+            Dependency dependency = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            Handle<Component> handle = config.getContext().handle(Component.class);
+
+            assertSame(dependency, handle.get().dependency());
+            assertNotSame(handle.get(), handle.get());
+        }
+
+        @Test
+        public void should_resolve_singleton_through_handle() {
+            config.bind(Dependency.class, LifecycleManagement.SingletonDependency.class);
+            Context context = config.getContext();
+
+            assertSame(context.get(Dependency.class).get(), context.handle(Dependency.class).get());
+        }
+
+        @Test
+        public void should_open_resolution_session_per_handle_get() {
+            config.bind(Dependency.class, ResolutionSession.SessionDependency.class);
+            config.bind(AnotherDependency.class, ResolutionSession.AnotherDependencyWithDependency.class);
+            config.bind(Component.class, ResolutionSession.DiamondComponent.class);
+            Handle<Component> handle = config.getContext().handle(Component.class);
+
+            ResolutionSession.DiamondComponent first = (ResolutionSession.DiamondComponent) handle.get();
+            ResolutionSession.DiamondComponent second = (ResolutionSession.DiamondComponent) handle.get();
+            assertSame(first.dependency, ((ResolutionSession.AnotherDependencyWithDependency) first.anotherDependency).dependency);
+            assertNotSame(first.dependency, second.dependency);
+        }
+
+        @Test
+        public void should_not_open_session_for_handle_without_resolution_scoped_dependency() {
+            List<Context> resolving = new ArrayList<>();
+            config.bind(Dependency.class, ResolutionSession.SessionDependency.class);
+            config.register(AnotherDependency.class, (ContextConfig.ComponentProvider<AnotherDependency>) context -> {
+                resolving.add(context);
+                return new AnotherDependency() {
+                };
+            });
+            Context context = config.getContext();
+            context.handle(AnotherDependency.class).get();
+
+            assertSame(context, resolving.get(0));
+        }
+
+        @Test
+        public void should_throw_exception_if_handle_component_not_bound() {
+            Context context = config.getContext();
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> context.handle(Component.class));
+
+            assertEquals(Component.class, exception.getDependency());
+        }
+    }
+
+    @Nested
+    public class ConcurrentRegistration {
+
+        @Test
+        public void should_install_modules_in_parallel() {
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                config.executor(executor);
+                config.install(config -> {
+                    await(barrier);
+                    config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+                }, config -> {
+                    await(barrier);
+                    config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+                });
+
+                assertInstanceOf(LifecycleManagement.DependencyInstance.class, config.getContext().get(Component.class).get().dependency());
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test
+        public void should_rethrow_exception_from_module() {
+            assertThrows(IllegalComponentException.class, () -> config.install(
+                    config -> config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class),
+                    config -> config.bind(Component.class, TypeBinding.ConstructorInjection.class, Singleton.class, Pooled.class)));
+        }
+
+        @Test
+        public void should_keep_every_contribution_registered_concurrently() {
+            config.install(Stream.generate(() -> (ContextConfig.Module) config -> {
+                for (int i = 0; i < 100; i++) config.contribute(Dependency.class, new Dependency() {
+                });
+            }).limit(8).toArray(ContextConfig.Module[]::new));
+            config.bind(Component.class, Multibindings.SetInjection.class);
+
+            assertEquals(800, ((Multibindings.SetInjection) config.getContext().get(Component.class).get()).dependencies.size());
+        }
+
+        @Test
+        public void should_not_change_context_by_binding_registered_after_it_created() {
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            Context context = config.getContext();
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+
+            assertTrue(context.get(Component.class).isEmpty());
+            assertTrue(config.getContext().get(Component.class).isPresent());
+        }
+
+        @Test
+        public void should_link_binding_once_when_first_resolved_concurrently() {
+            config.bind(Dependency.class, LifecycleManagement.SingletonDependency.class);
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            Context context = config.getContext();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                CyclicBarrier barrier = new CyclicBarrier(8);
+                List<CompletableFuture<Dependency>> resolved = Stream.generate(() -> CompletableFuture.supplyAsync(() -> {
+                    await(barrier);
+                    return context.get(Component.class).get().dependency();
+                }, executor)).limit(8).toList();
+
+                assertEquals(1, resolved.stream().map(CompletableFuture::join).distinct().count());
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        private static void await(CyclicBarrier barrier) {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Nested
+    public class ChildContext {
+
+        @Test
+        public void should_resolve_overridden_binding_and_its_dependents_from_child() {
+            Dependency dependency = new Dependency() {
+            };
+            Dependency overridden = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            Context parent = config.getContext();
+
+            ContextConfig overrides = new ContextConfig();
+            overrides.bind(Dependency.class, overridden);
+            Context child = parent.createChild(overrides);
+
+            assertSame(overridden, child.get(Component.class).get().dependency());
+            assertSame(dependency, parent.get(Component.class).get().dependency());
+        }
+
+        @Test
+        public void should_share_parent_singletons_not_affected_by_overrides() {
+            config.bind(Dependency.class, LifecycleManagement.SingletonDependency.class);
+            config.bind(Component.class, TypeBinding.FieldInjection.class);
+            Context parent = config.getContext();
+
+            ContextConfig overrides = new ContextConfig();
+            overrides.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+            Context child = parent.createChild(overrides);
+
+            assertSame(parent.get(Dependency.class).get(), child.get(Dependency.class).get());
+            assertTrue(child.get(AnotherDependency.class).isPresent());
+            assertTrue(parent.get(AnotherDependency.class).isEmpty());
+        }
+
+        @Test
+        public void should_resolve_child_dependencies_against_parent() {
+            Dependency dependency = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            Context parent = config.getContext();
+
+            ContextConfig overrides = new ContextConfig();
+            overrides.bind(Component.class, TypeBinding.MethodInjection.class);
+            Context grandchild = parent.createChild(overrides).createChild(new ContextConfig());
+
+            assertSame(dependency, grandchild.get(Component.class).get().dependency());
+        }
+
+        @Test
+        public void should_throw_exception_if_override_dependency_not_found() {
+            Context parent = config.getContext();
+
+            ContextConfig overrides = new ContextConfig();
+            overrides.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> parent.createChild(overrides));
+
+            assertEquals(Dependency.class, exception.getDependency());
+        }
+
+        @Test
+        public void should_throw_exception_if_override_introduces_cycle() {
+            config.bind(Component.class, DependencyCheck.CyclicComponentInjectConstructor.class);
+            config.bind(Dependency.class, new Dependency() {
+            });
+            Context parent = config.getContext();
+
+            ContextConfig overrides = new ContextConfig();
+            overrides.bind(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class);
+            CyclicDependencyFoundException exception = assertThrows(CyclicDependencyFoundException.class, () -> parent.createChild(overrides));
+
+            assertEquals(Set.of(Component.class, Dependency.class), Set.of(exception.getComponents()));
+        }
+    }
+
+    @Nested
+    public class StartupSnapshot {
+        @TempDir
+        Path directory;
+
+        @Test
+        public void should_write_snapshot_in_topological_order() {
+            Path file = directory.resolve("context.snapshot");
+            config.snapshot(file);
+            config.bind(Component.class, InheritedFieldInjection.class);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.getContext();
+
+            List<Snapshot.Entry> entries = List.copyOf(Snapshot.read(file).entries());
+            assertEquals(List.of(Dependency.class.getName(), Component.class.getName()), entries.stream().map(Snapshot.Entry::component).toList());
+            assertEquals(List.of(new Snapshot.Member(TypeBinding.FieldInjection.class.getName(), "dependency", List.of())), entries.get(1).fields());
+        }
+
+        @Test
+        public void should_restore_graph_from_matching_snapshot() throws Exception {
+            Path file = directory.resolve("context.snapshot");
+            config.snapshot(file);
+            config.bind(Component.class, InheritedMethodInjection.class);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.getContext();
+
+            ContextConfig restored = new ContextConfig();
+            restored.snapshot(file);
+            Files.delete(file);
+            restored.bind(Component.class, InheritedMethodInjection.class);
+            restored.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+
+            assertInstanceOf(LifecycleManagement.DependencyInstance.class, restored.getContext().get(Component.class).get().dependency());
+            assertFalse(Files.exists(file));
+        }
+
+        @Test
+        public void should_fall_back_and_rewrite_if_bindings_changed() {
+            Path file = directory.resolve("context.snapshot");
+            config.snapshot(file);
+            config.bind(Component.class, TypeBinding.ConstructorInjection.class);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.getContext();
+
+            ContextConfig changed = new ContextConfig();
+            changed.snapshot(file);
+            changed.bind(Component.class, TypeBinding.FieldInjection.class);
+            changed.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+
+            assertInstanceOf(LifecycleManagement.DependencyInstance.class, changed.getContext().get(Component.class).get().dependency());
+            assertTrue(Snapshot.read(file).entries().stream().anyMatch(entry -> entry.implementation().equals(TypeBinding.FieldInjection.class.getName())));
+        }
+
+        @Test
+        public void should_ignore_snapshot_if_fingerprint_not_match() throws Exception {
+            Path file = directory.resolve("context.snapshot");
+            config.snapshot(file);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+            config.getContext();
+
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[6] ^= 0xff;
+            Files.write(file, bytes);
+
+            assertNull(Snapshot.read(file));
+        }
+
+        @Test
+        public void should_validate_again_if_eager_dependencies_changed() {
+            Path file = directory.resolve("context.snapshot");
+            config.snapshot(file);
+            config.bind(Component.class, LazyBinding.ApiComponent.class);
+            config.bind(LazyBinding.Api.class, LazyBinding.ComponentDependentApi.class, Lazy.class);
+            config.getContext();
+
+            ContextConfig eager = new ContextConfig();
+            eager.snapshot(file);
+            eager.bind(Component.class, LazyBinding.ApiComponent.class);
+            eager.bind(LazyBinding.Api.class, LazyBinding.ComponentDependentApi.class);
+
+            assertThrows(CyclicDependencyFoundException.class, () -> eager.getContext());
+        }
+
+        @Test
+        public void should_create_context_if_snapshot_not_writable() {
+            Path file = directory.resolve("missing").resolve("context.snapshot");
+            config.snapshot(file);
+            config.bind(Dependency.class, LifecycleManagement.DependencyInstance.class);
+
+            assertTrue(config.getContext().get(Dependency.class).isPresent());
+            assertFalse(Files.exists(file));
+        }
+
+        static class InheritedFieldInjection extends TypeBinding.FieldInjection {
+        }
+
+        static class InheritedMethodInjection extends TypeBinding.MethodInjection {
+        }
+    }
+
+    @Nested
+    public class LazyBinding {
+
+        @BeforeEach
+        public void reset() {
+            ExpensiveApi.created.set(0);
+        }
+
+        @Test
+        public void should_not_create_lazy_component_until_first_call() {
+            config.bind(Api.class, ExpensiveApi.class, Lazy.class);
+            Api api = config.getContext().get(Api.class).get();
+
+            assertInstanceOf(LazyProxy.class, api);
+            assertEquals(0, ExpensiveApi.created.get());
+            assertEquals(42L, api.call(40L, "ab"));
+            assertEquals(1.5, api.ratio(2, 3.0));
+            assertEquals(1, ExpensiveApi.created.get());
+        }
+
+        @Test
+        public void should_create_lazy_component_for_annotated_implementation() {
+            config.bind(Api.class, AnnotatedLazyApi.class);
+            Api api = config.getContext().get(Api.class).get();
+
+            assertInstanceOf(LazyProxy.class, api);
+            assertEquals(0, ExpensiveApi.created.get());
+            api.call(0L, "");
+            assertEquals(1, ExpensiveApi.created.get());
+        }
+
+        @Test
+        public void should_create_lazy_target_once_across_threads() throws Exception {
+            config.bind(Api.class, ExpensiveApi.class, Lazy.class);
+            Api api = config.getContext().get(Api.class).get();
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<Long>> calls = new ArrayList<>();
+                for (int i = 0; i < 16; i++) calls.add(executor.submit(() -> api.call(1L, "")));
+                for (Future<Long> call : calls) assertEquals(1L, call.get());
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(1, ExpensiveApi.created.get());
+        }
+
+        @Test
+        public void should_not_report_cycle_through_lazy_binding() {
+            config.bind(Component.class, DependencyCheck.CyclicComponentInjectConstructor.class);
+            config.bind(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class, Lazy.class);
+
+            assertTrue(config.getContext().get(Component.class).isPresent());
+        }
+
+        @Test
+        public void should_resolve_lazy_target_depending_on_its_dependent() {
+            config.bind(Component.class, ApiComponent.class);
+            config.bind(Api.class, ComponentDependentApi.class, Lazy.class);
+            ApiComponent component = (ApiComponent) config.getContext().get(Component.class).get();
+
+            assertEquals(1L, component.api.call(1L, ""));
+        }
+
+        @Test
+        public void should_throw_exception_if_lazy_type_not_interface() {
+            assertThrows(IllegalComponentException.class, () -> config.bind(ExpensiveApi.class, ExpensiveApi.class, Lazy.class));
+        }
+
+        interface Api {
+            long call(long value, String suffix);
+
+            default double ratio(int numerator, double denominator) {
+                return denominator / numerator;
+            }
+        }
+
+        static class ExpensiveApi implements Api {
+            static final AtomicInteger created = new AtomicInteger();
+
+            public ExpensiveApi() {
+                created.incrementAndGet();
+            }
+
+            @Override
+            public long call(long value, String suffix) {
+                return value + suffix.length();
+            }
+        }
+
+        @Lazy
+        static class AnnotatedLazyApi extends ExpensiveApi {
+        }
+
+        static class ApiComponent implements Component {
+            private final Api api;
+
+            @Inject
+            public ApiComponent(Api api) {
+                this.api = api;
+            }
+        }
+
+        static class ComponentDependentApi extends ExpensiveApi {
+            @Inject
+            public ComponentDependentApi(Component component) {
+            }
+        }
     }
 
 }
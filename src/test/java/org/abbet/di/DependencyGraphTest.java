@@ -0,0 +1,42 @@
+package org.abbet.di;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyGraphTest {
+
+    @Test
+    public void should_sort_dependencies_before_dependents() {
+        Map<String, List<String>> graph = Map.of("a", List.of("b", "c"), "b", List.of("d"), "c", List.of("d"), "d", List.of());
+        List<String> order = DependencyGraph.sort(List.of("a"), graph::get).order();
+
+        assertEquals(4, order.size());
+        assertEquals("d", order.get(0));
+        assertEquals("a", order.get(3));
+    }
+
+    @Test
+    public void should_not_overflow_stack_on_deep_chain() {
+        int depth = 200_000;
+        DependencyGraph.Sorted<Integer> sorted = DependencyGraph.sort(List.of(0), node -> node < depth ? List.of(node + 1) : List.of());
+
+        assertTrue(sorted.cycles().isEmpty());
+        assertEquals(depth, sorted.order().get(0));
+        assertEquals(depth + 1, sorted.order().size());
+    }
+
+    @Test
+    public void should_report_every_cycle() {
+        Map<String, List<String>> graph = Map.of("a", List.of("b"), "b", List.of("a", "c"), "c", List.of("d"), "d", List.of("c"), "e", List.of("e"));
+        List<List<String>> cycles = DependencyGraph.sort(List.of("a", "e"), graph::get).cycles();
+
+        assertEquals(Set.of(Set.of("a", "b"), Set.of("c", "d"), Set.of("e")),
+                cycles.stream().map(Set::copyOf).collect(Collectors.toSet()));
+    }
+}
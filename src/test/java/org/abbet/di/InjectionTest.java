@@ -1,10 +1,13 @@
 package org.abbet.di;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,6 +52,19 @@ public class InjectionTest {
                 assertSame(dependency, instance.dependency());
             }
 
+            @Test
+            public void should_inject_dependency_via_linked_provider() {
+                ContextConfig.ComponentProvider<ComponentWithInjectConstructor> provider = new InjectionProvider<>(ComponentWithInjectConstructor.class)
+                        .link(type -> c -> dependency);
+                assertSame(dependency, provider.get(context).dependency());
+            }
+
+            @Test
+            public void should_share_injection_metadata_between_providers_of_same_component() {
+                assertSame(new InjectionProvider<>(ComponentWithInjectConstructor.class).getDependencies(),
+                        new InjectionProvider<>(ComponentWithInjectConstructor.class).getDependencies());
+            }
+
             @Test
             public void should_include_dependency_from_inject_constructor() {
                 InjectionProvider<ComponentWithInjectConstructor> provider = new InjectionProvider<>(ComponentWithInjectConstructor.class);
@@ -140,6 +156,48 @@ public class InjectionTest {
                 InjectionProvider<ComponentWithFieldInjection> provider = new InjectionProvider<>(FieldInjection.ComponentWithFieldInjection.class);
                 assertArrayEquals(new Class<?>[]{Dependency.class}, provider.getDependencies().toArray(Class<?>[]::new));
             }
+
+            @Test
+            public void should_inject_parameterized_field_by_raw_type() {
+                List<String> names = new ArrayList<>();
+                when(context.get(eq(List.class))).thenReturn(Optional.of(names));
+
+                ParameterizedFieldInjection component = new InjectionProvider<>(ParameterizedFieldInjection.class).get(context);
+                assertSame(names, component.names);
+            }
+
+            @Test
+            public void should_inject_type_variable_field_by_its_bound() {
+                TypeVariableFieldInjection component = new InjectionProvider<>(TypeVariableFieldInjection.class).get(context);
+                assertSame(dependency, component.dependency);
+            }
+
+            @Test
+            public void should_inject_generic_array_field_by_its_erasure() {
+                Dependency[] dependencies = {dependency};
+                when(context.get(eq(Dependency[].class))).thenReturn(Optional.of(dependencies));
+
+                GenericArrayFieldInjection component = new InjectionProvider<>(GenericArrayFieldInjection.class).get(context);
+                assertSame(dependencies, component.dependencies);
+            }
+        }
+
+        static class ParameterizedFieldInjection {
+            @Inject
+            List<String> names;
+        }
+
+        static class GenericFieldInjection<T extends Dependency> {
+            @Inject
+            T dependency;
+        }
+
+        static class TypeVariableFieldInjection extends GenericFieldInjection<Dependency> {
+        }
+
+        static class GenericArrayFieldInjection<T extends Dependency> {
+            @Inject
+            T[] dependencies;
         }
 
         static class ComponentWithFieldInjection {
@@ -288,6 +346,114 @@ public class InjectionTest {
 
     }
 
+    @Nested
+    public class FactoryInjection {
+        @Test
+        public void should_inject_dependency_via_inject_constructor_with_factory() {
+            InjectionProvider<ComponentWithInjectConstructor> provider = new InjectionProvider<>(ComponentWithInjectConstructor.class, true);
+            assertTrue(provider.isFactory());
+            assertSame(dependency, provider.get(context).dependency());
+        }
+
+        @Test
+        public void should_inject_dependency_via_superclass_inject_field_with_factory() {
+            InjectionProvider<FieldInjection.SubClassWithFieldInjection> provider = new InjectionProvider<>(FieldInjection.SubClassWithFieldInjection.class, true);
+            assertTrue(provider.isFactory());
+            assertSame(dependency, provider.get(context).dependency);
+        }
+
+        @Test
+        public void should_inject_dependency_via_inject_method_with_factory() {
+            InjectionProvider<MethodInjection.Injection.SubclassWithInjectMethod> provider = new InjectionProvider<>(MethodInjection.Injection.SubclassWithInjectMethod.class, true);
+            assertTrue(provider.isFactory());
+            MethodInjection.Injection.SubclassWithInjectMethod component = provider.get(context);
+            assertEquals(1, component.superCalled);
+            assertEquals(2, component.subCalled);
+        }
+
+        @Test
+        public void should_inject_private_field_with_factory() {
+            InjectionProvider<PrivateFieldInjection> provider = new InjectionProvider<>(PrivateFieldInjection.class, true);
+            assertTrue(provider.isFactory());
+            assertSame(dependency, provider.get(context).dependency);
+        }
+
+        @Test
+        public void should_define_injector_once_per_component_class() {
+            InjectionProvider<ComponentWithInjectConstructor> first = new InjectionProvider<>(ComponentWithInjectConstructor.class, true);
+            InjectionProvider<ComponentWithInjectConstructor> second = new InjectionProvider<>(ComponentWithInjectConstructor.class, true);
+            assertSame(first.injector(), second.injector());
+        }
+
+        @Test
+        public void should_fall_back_to_reflection_if_factory_not_generated() {
+            when(context.get(eq(int.class))).thenReturn(Optional.of(42));
+            InjectionProvider<PrimitiveFieldInjection> provider = new InjectionProvider<>(PrimitiveFieldInjection.class, true);
+            assertFalse(provider.isFactory());
+            assertEquals(42, provider.get(context).value);
+        }
+
+        @Test
+        public void should_wrap_exception_from_factory_constructor() {
+            InjectionProvider<FailingConstructor> provider = new InjectionProvider<>(FailingConstructor.class, true);
+            assertTrue(provider.isFactory());
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> provider.get(context));
+            assertInstanceOf(IllegalStateException.class, exception.getCause().getCause());
+        }
+
+        static class PrivateFieldInjection {
+            @Inject
+            private Dependency dependency;
+        }
+
+        static class PrimitiveFieldInjection {
+            @Inject
+            int value;
+        }
+
+        static class FailingConstructor {
+            @Inject
+            public FailingConstructor(Dependency dependency) {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    @Nested
+    public class ProviderInjection {
+        @Test
+        public void should_inject_provider_via_inject_constructor() {
+            ProviderInjectConstructor instance = new InjectionProvider<>(ProviderInjectConstructor.class).get(context);
+            assertSame(dependency, instance.dependency.get());
+        }
+
+        @Test
+        public void should_include_provided_type_in_dependencies_but_not_eager_dependencies() {
+            InjectionProvider<ProviderInjectConstructor> provider = new InjectionProvider<>(ProviderInjectConstructor.class);
+            assertArrayEquals(new Class<?>[]{Dependency.class}, provider.getDependencies().toArray(Class<?>[]::new));
+            assertTrue(provider.getEagerDependencies().isEmpty());
+        }
+
+        @Test
+        public void should_throw_exception_if_provider_has_no_type_argument() {
+            assertThrows(IllegalComponentException.class, () -> new InjectionProvider<>(RawProviderInjectField.class));
+        }
+
+        static class ProviderInjectConstructor {
+            Provider<Dependency> dependency;
+
+            @Inject
+            public ProviderInjectConstructor(Provider<Dependency> dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        static class RawProviderInjectField {
+            @Inject
+            Provider dependency;
+        }
+    }
+
     static class ComponentWithInjectConstructor implements Component {
         private Dependency dependency;
 